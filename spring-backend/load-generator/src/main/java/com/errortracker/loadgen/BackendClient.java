@@ -0,0 +1,66 @@
+package com.errortracker.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+/** Session-authenticated calls used to provision projects and poll the dashboard. */
+final class BackendClient {
+    private final HttpClient http;
+    private final ObjectMapper mapper;
+    private final String baseUrl;
+    
+    BackendClient(String baseUrl, ObjectMapper mapper) {
+        this.baseUrl = baseUrl;
+        this.mapper = mapper;
+        this.http = HttpClient.newBuilder()
+            .cookieHandler(new CookieManager())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    }
+    
+    /** Logs in, registering the account first if it does not exist yet. */
+    void signIn(String username, String password) throws IOException, InterruptedException {
+        HttpResponse<String> login = postJson("/api/login", Map.of("username", username, "password", password));
+        if (login.statusCode() == 200) {
+            return;
+        }
+        HttpResponse<String> register = postJson("/api/register", Map.of(
+            "username", username,
+            "password", password,
+            "email", username + "@loadgen.local"
+        ));
+        if (register.statusCode() != 201) {
+            throw new IllegalStateException("Could not log in or register " + username + ": " + register.statusCode() + " " + register.body());
+        }
+    }
+    
+    JsonNode createProject(String name, String platform) throws IOException, InterruptedException {
+        HttpResponse<String> response = postJson("/api/projects", Map.of("name", name, "platform", platform));
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Could not create project " + name + ": " + response.statusCode() + " " + response.body());
+        }
+        return mapper.readTree(response.body());
+    }
+    
+    HttpClient http() {
+        return http;
+    }
+    
+    private HttpResponse<String> postJson(String path, Object body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body)))
+            .timeout(Duration.ofSeconds(30))
+            .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
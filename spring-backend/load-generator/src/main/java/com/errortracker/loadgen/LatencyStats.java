@@ -0,0 +1,69 @@
+package com.errortracker.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Latency percentiles and response codes for one traffic stream, per interval and overall. */
+final class LatencyStats {
+    private static final long MAX_TRACKED_MICROS = 120_000_000L;
+    
+    private final String name;
+    private final Recorder recorder = new Recorder(MAX_TRACKED_MICROS, 3);
+    private final Histogram total = new Histogram(MAX_TRACKED_MICROS, 3);
+    private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+    private Histogram interval;
+    
+    LatencyStats(String name) {
+        this.name = name;
+    }
+    
+    void record(long latencyMicros, int status) {
+        recorder.recordValue(Math.min(Math.max(latencyMicros, 0), MAX_TRACKED_MICROS));
+        statusCodes.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+    
+    /** Transport-level failure: connection refused, timeout, client saturated. */
+    void recordFailure() {
+        failures.increment();
+    }
+    
+    synchronized String intervalReport(double seconds) {
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+        return String.format("%-7s %8.1f req/s  p50=%7.1fms  p95=%7.1fms  p99=%7.1fms  max=%8.1fms",
+            name, interval.getTotalCount() / seconds,
+            ms(interval.getValueAtPercentile(50)), ms(interval.getValueAtPercentile(95)),
+            ms(interval.getValueAtPercentile(99)), ms(interval.getMaxValue()));
+    }
+    
+    synchronized String summary(double seconds) {
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+        long responses = total.getTotalCount();
+        long errors = failures.sum();
+        for (Map.Entry<Integer, LongAdder> entry : statusCodes.entrySet()) {
+            if (entry.getKey() >= 400) {
+                errors += entry.getValue().sum();
+            }
+        }
+        Map<Integer, Long> codes = new TreeMap<>();
+        statusCodes.forEach((code, count) -> codes.put(code, count.sum()));
+        return String.format("%s: %d responses (%.1f/s), error rate %.2f%%, transport failures %d%n" +
+                "  p50=%.1fms p90=%.1fms p95=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms%n  status codes %s",
+            name, responses, responses / seconds,
+            100.0 * errors / Math.max(1, responses + failures.sum()), failures.sum(),
+            ms(total.getValueAtPercentile(50)), ms(total.getValueAtPercentile(90)),
+            ms(total.getValueAtPercentile(95)), ms(total.getValueAtPercentile(99)),
+            ms(total.getValueAtPercentile(99.9)), ms(total.getMaxValue()), codes);
+    }
+    
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,86 @@
+package com.errortracker.loadgen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options, passed as --name=value. Unknown options are rejected so a
+ * typo does not silently run the default profile.
+ */
+final class LoadConfig {
+    String baseUrl = "http://localhost:8080";
+    double eventsPerSecond = 200;
+    int durationSeconds = 60;
+    int reportIntervalSeconds = 5;
+    int maxInFlight = 2000;
+    
+    // Projects are created through the API unless apiKeys are given
+    int projects = 5;
+    List<String> apiKeys = new ArrayList<>();
+    List<Integer> projectIds = new ArrayList<>();
+    double hotProjectShare = 0;
+    
+    String username = "loadgen";
+    String password = "loadgen-password";
+    
+    int pollers = 10;
+    int pollIntervalMs = 5000;
+    
+    Map<String, Integer> payloadMix = parseMix("small:70,medium:25,large:5");
+    double mobileShare = 0.7;
+    String replayFile;
+    
+    static LoadConfig parse(String[] args) {
+        LoadConfig config = new LoadConfig();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "baseUrl" -> config.baseUrl = value.replaceAll("/+$", "");
+                case "eventsPerSecond" -> config.eventsPerSecond = Double.parseDouble(value);
+                case "durationSeconds" -> config.durationSeconds = Integer.parseInt(value);
+                case "reportIntervalSeconds" -> config.reportIntervalSeconds = Integer.parseInt(value);
+                case "maxInFlight" -> config.maxInFlight = Integer.parseInt(value);
+                case "projects" -> config.projects = Integer.parseInt(value);
+                case "apiKeys" -> config.apiKeys = new ArrayList<>(Arrays.asList(value.split(",")));
+                case "projectIds" -> config.projectIds = Arrays.stream(value.split(",")).map(Integer::valueOf).toList();
+                case "hotProjectShare" -> config.hotProjectShare = Double.parseDouble(value);
+                case "username" -> config.username = value;
+                case "password" -> config.password = value;
+                case "pollers" -> config.pollers = Integer.parseInt(value);
+                case "pollIntervalMs" -> config.pollIntervalMs = Integer.parseInt(value);
+                case "payloadMix" -> config.payloadMix = parseMix(value);
+                case "mobileShare" -> config.mobileShare = Double.parseDouble(value);
+                case "replayFile" -> config.replayFile = value;
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+        return config;
+    }
+    
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] kv = part.split(":");
+            if (!PayloadGenerator.SIZES.containsKey(kv[0])) {
+                throw new IllegalArgumentException("Unknown payload size '" + kv[0] + "', expected one of " + PayloadGenerator.SIZES.keySet());
+            }
+            mix.put(kv[0], Integer.parseInt(kv[1]));
+        }
+        return mix;
+    }
+    
+    @Override
+    public String toString() {
+        return "baseUrl=" + baseUrl + ", eventsPerSecond=" + eventsPerSecond + ", durationSeconds=" + durationSeconds +
+            ", projects=" + (apiKeys.isEmpty() ? projects : apiKeys.size()) + ", hotProjectShare=" + hotProjectShare +
+            ", pollers=" + pollers + ", pollIntervalMs=" + pollIntervalMs + ", payloadMix=" + payloadMix +
+            ", mobileShare=" + mobileShare + (replayFile != null ? ", replayFile=" + replayFile : "");
+    }
+}
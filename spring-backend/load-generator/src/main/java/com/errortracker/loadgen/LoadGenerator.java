@@ -0,0 +1,157 @@
+package com.errortracker.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Open-loop load generator for a locally running backend.
+ *
+ * Ingest requests are issued on a fixed schedule regardless of how fast the server
+ * answers, and latency is measured from the scheduled send time, so a stalled server
+ * shows up as queueing delay instead of as a lower request rate. Dashboard pollers
+ * hit /api/projects/{id}/events at the frontend's refetch interval in parallel.
+ */
+public class LoadGenerator {
+    private static final long TICK_MILLIS = 10;
+    
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.parse(args);
+        ObjectMapper mapper = new ObjectMapper();
+        System.out.println("Load profile: " + config);
+        
+        BackendClient backend = new BackendClient(config.baseUrl, mapper);
+        List<String> apiKeys = new ArrayList<>(config.apiKeys);
+        List<Integer> projectIds = new ArrayList<>(config.projectIds);
+        boolean polling = config.pollers > 0;
+        
+        if (apiKeys.isEmpty() || (polling && projectIds.isEmpty())) {
+            backend.signIn(config.username, config.password);
+        }
+        if (apiKeys.isEmpty()) {
+            for (int i = 0; i < config.projects; i++) {
+                JsonNode project = backend.createProject("loadgen-" + System.currentTimeMillis() + "-" + i, i % 3 == 2 ? "web" : "android");
+                apiKeys.add(project.get("apiKey").asText());
+                projectIds.add(project.get("id").asInt());
+            }
+            System.out.println("Provisioned " + apiKeys.size() + " projects: " + projectIds);
+        }
+        if (polling && projectIds.isEmpty()) {
+            System.out.println("No --projectIds given for the supplied --apiKeys, dashboard polling disabled");
+            polling = false;
+        }
+        
+        PayloadGenerator payloads = new PayloadGenerator(mapper, config);
+        HttpClient ingestClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        LatencyStats ingestStats = new LatencyStats("ingest");
+        LatencyStats pollStats = new LatencyStats("poll");
+        Semaphore inFlight = new Semaphore(config.maxInFlight);
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(Math.max(2, config.pollers + 2));
+        
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(config.durationSeconds);
+        double intervalNanos = 1e9 / config.eventsPerSecond;
+        long[] issued = {0};
+        
+        scheduler.scheduleAtFixedRate(() -> {
+            long now = System.nanoTime();
+            // Catch up to the schedule; each request carries its intended send time
+            while (true) {
+                long intended = start + (long) (issued[0] * intervalNanos);
+                if (intended > now || intended >= end) {
+                    break;
+                }
+                issued[0]++;
+                if (!inFlight.tryAcquire()) {
+                    ingestStats.recordFailure();
+                    continue;
+                }
+                String apiKey = pickApiKey(apiKeys, config.hotProjectShare);
+                try {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(config.baseUrl + "/api/ingest"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(payloads.next(apiKey)))
+                        .timeout(Duration.ofSeconds(30))
+                        .build();
+                    ingestClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            inFlight.release();
+                            if (error != null) {
+                                ingestStats.recordFailure();
+                            } else {
+                                ingestStats.record((System.nanoTime() - intended) / 1000, response.statusCode());
+                            }
+                        });
+                } catch (Exception e) {
+                    inFlight.release();
+                    ingestStats.recordFailure();
+                }
+            }
+        }, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        
+        if (polling) {
+            for (int i = 0; i < config.pollers; i++) {
+                Integer projectId = projectIds.get(i % projectIds.size());
+                long initialDelay = ThreadLocalRandom.current().nextLong(config.pollIntervalMs);
+                scheduler.scheduleAtFixedRate(() -> poll(backend.http(), config.baseUrl, projectId, pollStats),
+                    initialDelay, config.pollIntervalMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        
+        long reportNanos = TimeUnit.SECONDS.toNanos(config.reportIntervalSeconds);
+        while (System.nanoTime() < end) {
+            Thread.sleep(TimeUnit.NANOSECONDS.toMillis(Math.min(reportNanos, end - System.nanoTime())) + 1);
+            System.out.println(ingestStats.intervalReport(config.reportIntervalSeconds) + "  in-flight=" + (config.maxInFlight - inFlight.availablePermits()));
+            if (polling) {
+                System.out.println(pollStats.intervalReport(config.reportIntervalSeconds));
+            }
+        }
+        
+        scheduler.shutdownNow();
+        // Let outstanding ingest requests finish so their latency is counted
+        inFlight.tryAcquire(config.maxInFlight, 30, TimeUnit.SECONDS);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        
+        System.out.println();
+        System.out.println(ingestStats.summary(elapsed));
+        if (polling) {
+            System.out.println(pollStats.summary(elapsed));
+        }
+    }
+    
+    private static String pickApiKey(List<String> apiKeys, double hotProjectShare) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (hotProjectShare > 0 && random.nextDouble() < hotProjectShare) {
+            return apiKeys.get(0);
+        }
+        return apiKeys.get(random.nextInt(apiKeys.size()));
+    }
+    
+    private static void poll(HttpClient http, String baseUrl, Integer projectId, LatencyStats stats) {
+        long start = System.nanoTime();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/projects/" + projectId + "/events?limit=50"))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+            stats.record((System.nanoTime() - start) / 1000, response.statusCode());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            stats.recordFailure();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.errortracker.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds ingest bodies the way the mobile and web SDK snippets do, or replays
+ * captured bodies from a JSON-lines file with the apiKey swapped per project.
+ */
+final class PayloadGenerator {
+    /** Stack frames and breadcrumbs per size class. */
+    static final Map<String, int[]> SIZES = Map.of(
+        "small", new int[]{8, 5},
+        "medium", new int[]{40, 30},
+        "large", new int[]{200, 100}
+    );
+    
+    private static final String[] ANDROID_FRAMES = {
+        "at com.example.shop.ui.checkout.CheckoutFragment.onViewCreated(CheckoutFragment.kt:%d)",
+        "at com.example.shop.data.repository.CartRepository.loadCart(CartRepository.kt:%d)",
+        "at kotlinx.coroutines.DispatchedTask.run(DispatchedTask.kt:%d)",
+        "at androidx.fragment.app.FragmentStateManager.createView(FragmentStateManager.java:%d)",
+        "at okhttp3.internal.connection.RealCall.execute(RealCall.kt:%d)",
+        "at android.os.Looper.loopOnce(Looper.java:%d)",
+    };
+    private static final String[] IOS_FRAMES = {
+        "%d  Shop  0x0000000102a4c3f4 CheckoutViewController.viewDidLoad() + 212",
+        "%d  Shop  0x0000000102a51a10 CartService.load(completion:) + 88",
+        "%d  UIKitCore  0x00000001a1f2e4c8 -[UIViewController _sendViewDidLoadWithAppearanceProxyObjectTaggingEnabled] + 108",
+        "%d  libdispatch.dylib  0x00000001a0c1a8b4 _dispatch_call_block_and_release + 32",
+    };
+    private static final String[] WEB_FRAMES = {
+        "at UserProfile.fetchData (https://app.example.com/assets/index-4f2a.js:1:%d)",
+        "at async loadUser (https://app.example.com/assets/index-4f2a.js:2:%d)",
+        "at commitHookEffectListMount (https://app.example.com/assets/vendor-9c1d.js:1:%d)",
+        "at flushPassiveEffects (https://app.example.com/assets/vendor-9c1d.js:1:%d)",
+    };
+    private static final String[] SEVERITIES = {"low", "medium", "medium", "high", "high", "critical"};
+    private static final String[] CATEGORIES = {"navigation", "http", "ui.click", "console", "lifecycle"};
+    
+    private final ObjectMapper mapper;
+    private final LoadConfig config;
+    private final List<String> sizeWheel = new ArrayList<>();
+    private final List<ObjectNode> replay = new ArrayList<>();
+    private final AtomicLong replayCursor = new AtomicLong();
+    
+    PayloadGenerator(ObjectMapper mapper, LoadConfig config) throws IOException {
+        this.mapper = mapper;
+        this.config = config;
+        config.payloadMix.forEach((size, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                sizeWheel.add(size);
+            }
+        });
+        if (config.replayFile != null) {
+            for (String line : Files.readAllLines(Path.of(config.replayFile))) {
+                if (!line.isBlank()) {
+                    replay.add((ObjectNode) mapper.readTree(line));
+                }
+            }
+            if (replay.isEmpty()) {
+                throw new IllegalArgumentException("Replay file has no events: " + config.replayFile);
+            }
+        }
+    }
+    
+    byte[] next(String apiKey) throws IOException {
+        if (!replay.isEmpty()) {
+            ObjectNode event = replay.get((int) (replayCursor.getAndIncrement() % replay.size())).deepCopy();
+            event.put("apiKey", apiKey);
+            return mapper.writeValueAsBytes(event);
+        }
+        return mapper.writeValueAsBytes(synthetic(apiKey));
+    }
+    
+    private Map<String, Object> synthetic(String apiKey) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] shape = SIZES.get(sizeWheel.get(random.nextInt(sizeWheel.size())));
+        boolean mobile = random.nextDouble() < config.mobileShare;
+        boolean ios = mobile && random.nextBoolean();
+        String[] frames = !mobile ? WEB_FRAMES : ios ? IOS_FRAMES : ANDROID_FRAMES;
+        
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("apiKey", apiKey);
+        payload.put("type", mobile ? "crash" : "error");
+        payload.put("message", mobile ? "IllegalStateException: Cart response was null" : "TypeError: Cannot read properties of undefined (reading 'id')");
+        payload.put("level", SEVERITIES[random.nextInt(SEVERITIES.length)]);
+        payload.put("userName", "user_" + random.nextInt(50_000));
+        payload.put("traceId", "tr-" + Long.toHexString(random.nextLong()));
+        payload.put("occurredAt", LocalDateTime.now().toString());
+        
+        StringBuilder stack = new StringBuilder();
+        for (int i = 0; i < shape[0]; i++) {
+            stack.append("    ").append(String.format(frames[random.nextInt(frames.length)], 10 + random.nextInt(9000))).append('\n');
+        }
+        payload.put("stackTrace", stack.toString());
+        
+        if (mobile) {
+            payload.put("deviceInfo", Map.of(
+                "model", ios ? "iPhone15,3" : "Pixel 7 Pro",
+                "os", ios ? "iOS" : "Android",
+                "osVersion", ios ? "17.2" : "14",
+                "memoryMb", ios ? 6144 : 12288
+            ));
+        } else {
+            payload.put("deviceInfo", Map.of(
+                "model", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/120.0",
+                "os", "Win32"
+            ));
+        }
+        payload.put("platformInfo", Map.of("version", "4.12." + random.nextInt(5), "environment", "production"));
+        payload.put("tags", Map.of("screen", "checkout", "release", "4.12"));
+        
+        List<Map<String, Object>> breadcrumbs = new ArrayList<>(shape[1]);
+        for (int i = 0; i < shape[1]; i++) {
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            breadcrumbs.add(Map.of(
+                "category", category,
+                "message", category + " #" + i,
+                "level", "info",
+                "timestamp", LocalDateTime.now().minusSeconds(shape[1] - i).toString()
+            ));
+        }
+        payload.put("breadcrumbs", breadcrumbs);
+        return payload;
+    }
+}
@@ -0,0 +1,67 @@
+package com.errortracker.benchmark;
+
+import com.errortracker.entity.Project;
+import com.errortracker.repository.ErrorEventRepository;
+import com.errortracker.repository.EventBreadcrumbsRepository;
+import com.errortracker.repository.EventDailyAggregateRepository;
+import com.errortracker.repository.EventDimensionRepository;
+import com.errortracker.repository.ProjectRepository;
+import com.errortracker.repository.ProjectUserRepository;
+import com.errortracker.service.ApiKeyCache;
+import com.errortracker.service.IngestRateLimiter;
+import com.errortracker.service.ProjectService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/** API key generation on project creation and the per-ingest key lookup through ApiKeyCache. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiKeyBenchmark {
+    @Param({"100", "10000"})
+    public int projectCount;
+    
+    private ProjectService projectService;
+    private ApiKeyCache apiKeyCache;
+    private String[] keys;
+    private int next;
+    
+    @Setup
+    public void setup() {
+        apiKeyCache = new ApiKeyCache(new SimpleMeterRegistry(), 60, 10_000);
+        projectService = new ProjectService(
+            Stubs.repository(ProjectRepository.class),
+            Stubs.repository(ErrorEventRepository.class),
+            Stubs.repository(ProjectUserRepository.class),
+            apiKeyCache,
+            new IngestRateLimiter(100, 500, 0.1),
+            Stubs.repository(EventBreadcrumbsRepository.class),
+            Stubs.repository(EventDailyAggregateRepository.class),
+            Stubs.repository(EventDimensionRepository.class)
+        );
+        keys = new String[projectCount];
+        for (int i = 0; i < projectCount; i++) {
+            Project project = projectService.createProject("project-" + i, "android", 1);
+            project.setId(i + 1);
+            keys[i] = project.getApiKey();
+            apiKeyCache.get(keys[i], key -> Optional.of(project));
+        }
+    }
+    
+    @Benchmark
+    public Project generateKey() {
+        return projectService.createProject("bench", "android", 1);
+    }
+    
+    @Benchmark
+    public Optional<Project> lookupCachedKey() {
+        String key = keys[next++ % keys.length];
+        return apiKeyCache.get(key, k -> Optional.empty());
+    }
+}
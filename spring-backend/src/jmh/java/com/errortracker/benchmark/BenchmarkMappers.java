@@ -0,0 +1,42 @@
+package com.errortracker.benchmark;
+
+import com.errortracker.config.BoundedIngestRequestDeserializer;
+import com.errortracker.dto.IngestRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/** ObjectMappers configured the way Spring Boot configures the application's converters. */
+final class BenchmarkMappers {
+    private BenchmarkMappers() {}
+    
+    static ObjectMapper json() {
+        return builder().build();
+    }
+    
+    /** "json", "smile" or "cbor", matching the converters registered in WebConfig. */
+    static ObjectMapper forFormat(String format) {
+        switch (format) {
+            case "json":
+                return json();
+            case "smile":
+                return builder().factory(new SmileFactory()).build();
+            case "cbor":
+                return builder().factory(new CBORFactory()).build();
+            default:
+                throw new IllegalArgumentException("Unknown format " + format);
+        }
+    }
+    
+    private static Jackson2ObjectMapperBuilder builder() {
+        // IngestParsingConfig's module with the application.properties limits
+        return Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(new SimpleModule("bounded-ingest").addDeserializer(IngestRequest.class,
+                new BoundedIngestRequestDeserializer(8192, 131072, 2048, 100, 100, 5, new SimpleMeterRegistry())));
+    }
+}
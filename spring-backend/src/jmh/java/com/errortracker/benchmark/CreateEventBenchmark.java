@@ -0,0 +1,37 @@
+package com.errortracker.benchmark;
+
+import com.errortracker.dto.IngestRequest;
+import com.errortracker.entity.ErrorEvent;
+import com.errortracker.service.ErrorEventService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/** IngestRequest to ErrorEvent mapping in ErrorEventService.createEvent, repository stubbed out. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreateEventBenchmark {
+    @Param({"small", "large"})
+    public String payloadSize;
+    
+    private ErrorEventService service;
+    private IngestRequest request;
+    
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper mapper = BenchmarkMappers.json();
+        request = mapper.readValue(PayloadFixtures.encode(mapper, payloadSize), IngestRequest.class);
+        service = Stubs.errorEventService();
+    }
+    
+    @Benchmark
+    public ErrorEvent createEvent() {
+        return service.createEvent(1, request);
+    }
+}
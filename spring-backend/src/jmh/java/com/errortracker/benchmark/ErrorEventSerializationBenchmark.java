@@ -0,0 +1,40 @@
+package com.errortracker.benchmark;
+
+import com.errortracker.dto.IngestRequest;
+import com.errortracker.entity.ErrorEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ErrorEvent to JSON, with its jsonb maps and breadcrumbs. This is the work done
+ * for every event in a dashboard list response and for the ingest response body.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ErrorEventSerializationBenchmark {
+    @Param({"small", "large"})
+    public String payloadSize;
+    
+    private ObjectMapper mapper;
+    private ErrorEvent event;
+    
+    @Setup
+    public void setup() throws IOException {
+        mapper = BenchmarkMappers.json();
+        IngestRequest request = mapper.readValue(PayloadFixtures.encode(mapper, payloadSize), IngestRequest.class);
+        event = Stubs.errorEventService().createEvent(1, request);
+        event.setId(123456);
+    }
+    
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(event);
+    }
+}
@@ -0,0 +1,41 @@
+package com.errortracker.benchmark;
+
+import com.errortracker.dto.IngestRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Body of POST /api/ingest into IngestRequest, as the message converter does it, for each
+ * accepted Content-Type. Compare ops/s (CPU per event) and gc.alloc.rate.norm across formats;
+ * "oversized" shows what the truncating deserializer costs on a payload past its limits.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IngestDeserializationBenchmark {
+    @Param({"small", "large", "oversized"})
+    public String payloadSize;
+    
+    @Param({"json", "smile", "cbor"})
+    public String format;
+    
+    private ObjectMapper mapper;
+    private byte[] body;
+    
+    @Setup
+    public void setup() {
+        mapper = BenchmarkMappers.forFormat(format);
+        body = PayloadFixtures.encode(mapper, payloadSize);
+    }
+    
+    @Benchmark
+    public IngestRequest deserialize() throws IOException {
+        return mapper.readValue(body, IngestRequest.class);
+    }
+}
@@ -0,0 +1,130 @@
+package com.errortracker.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic SDK payloads shaped like real mobile/web crash reports.
+ * "small" is a typical handled exception, "large" a deep crash with a long breadcrumb trail,
+ * "oversized" a runaway report well past the ingest parsing limits.
+ */
+final class PayloadFixtures {
+    private static final String[] FRAMES = {
+        "at com.example.shop.ui.checkout.CheckoutFragment.onViewCreated(CheckoutFragment.kt:%d)",
+        "at com.example.shop.data.repository.CartRepository.loadCart(CartRepository.kt:%d)",
+        "at com.example.shop.network.ApiClient$execute$2.invokeSuspend(ApiClient.kt:%d)",
+        "at kotlin.coroutines.jvm.internal.BaseContinuationImpl.resumeWith(ContinuationImpl.kt:%d)",
+        "at kotlinx.coroutines.DispatchedTask.run(DispatchedTask.kt:%d)",
+        "at androidx.fragment.app.Fragment.performViewCreated(Fragment.java:%d)",
+        "at androidx.fragment.app.FragmentStateManager.createView(FragmentStateManager.java:%d)",
+        "at okhttp3.internal.connection.RealCall.getResponseWithInterceptorChain$okhttp(RealCall.kt:%d)",
+        "at okhttp3.internal.http.RetryAndFollowUpInterceptor.intercept(RetryAndFollowUpInterceptor.kt:%d)",
+        "at retrofit2.OkHttpCall.parseResponse(OkHttpCall.java:%d)",
+        "at android.os.Handler.handleCallback(Handler.java:%d)",
+        "at android.os.Looper.loopOnce(Looper.java:%d)",
+        "at com.android.internal.os.ZygoteInit.main(ZygoteInit.java:%d)",
+        "at UserProfile.fetchData (webpack-internal:///./src/components/UserProfile.tsx:%d:15)",
+        "at async loadUser (webpack-internal:///./src/lib/api.ts:%d:5)",
+    };
+    
+    private static final String[] CATEGORIES = {"navigation", "http", "ui.click", "console", "lifecycle"};
+    
+    private PayloadFixtures() {}
+    
+    static Map<String, Object> payload(String size) {
+        switch (size) {
+            case "large":
+                return payload(250, 100, 42L);
+            case "oversized":
+                return payload(5000, 5000, 99L);
+            default:
+                return payload(12, 10, 7L);
+        }
+    }
+    
+    static Map<String, Object> payload(int frames, int breadcrumbs, long seed) {
+        Random random = new Random(seed);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("apiKey", "3f9a1c0e5b7d2f4a8c6e1b3d5f7a9c0e2b4d6f8a1c3e5b7d9f0a2c4e6b8d0f1a");
+        payload.put("type", "error");
+        payload.put("message", "java.lang.IllegalStateException: Cart response was null for user session");
+        payload.put("severity", "high");
+        payload.put("traceId", "tr-" + Long.toHexString(random.nextLong()));
+        payload.put("userName", "user_" + random.nextInt(100_000));
+        payload.put("occurredAt", LocalDateTime.of(2026, 1, 21, 14, 24, 32).toString());
+        payload.put("stackTrace", stackTrace(frames, random));
+        payload.put("deviceInfo", Map.of(
+            "model", "Pixel 7 Pro",
+            "manufacturer", "Google",
+            "os", "Android",
+            "osVersion", "14",
+            "memoryMb", 12288,
+            "batteryLevel", 0.63,
+            "orientation", "portrait"
+        ));
+        payload.put("platformInfo", Map.of(
+            "version", "4.12.1",
+            "build", 41201,
+            "environment", "production",
+            "sdk", "logra-android/1.3.0"
+        ));
+        payload.put("tags", Map.of(
+            "screen", "checkout",
+            "locale", "pt-BR",
+            "network", "cellular",
+            "release", "4.12.1+41201"
+        ));
+        payload.put("breadcrumbs", breadcrumbs(breadcrumbs, random));
+        return payload;
+    }
+    
+    static byte[] encode(ObjectMapper mapper, String size) {
+        try {
+            return mapper.writeValueAsBytes(payload(size));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static String stackTrace(int frames, Random random) {
+        StringBuilder sb = new StringBuilder("java.lang.IllegalStateException: Cart response was null for user session\n");
+        for (int i = 0; i < frames; i++) {
+            if (i > 0 && i % 60 == 0) {
+                sb.append("Caused by: java.io.IOException: unexpected end of stream on https://api.example.com/...\n");
+            }
+            sb.append("    ").append(String.format(FRAMES[random.nextInt(FRAMES.length)], 20 + random.nextInt(900))).append('\n');
+        }
+        return sb.toString();
+    }
+    
+    private static List<Map<String, Object>> breadcrumbs(int count, Random random) {
+        List<Map<String, Object>> crumbs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            Map<String, Object> crumb = new LinkedHashMap<>();
+            crumb.put("timestamp", "2026-01-21T14:2" + (i % 10) + ":0" + (i % 10) + ".123Z");
+            crumb.put("category", category);
+            crumb.put("level", i % 7 == 0 ? "warning" : "info");
+            crumb.put("message", category + " event #" + i);
+            if ("http".equals(category)) {
+                crumb.put("data", Map.of(
+                    "method", "GET",
+                    "url", "https://api.example.com/v2/cart/" + random.nextInt(10_000),
+                    "status_code", random.nextBoolean() ? 200 : 502,
+                    "duration_ms", random.nextInt(3000)
+                ));
+            } else if ("navigation".equals(category)) {
+                crumb.put("data", Map.of("from", "/catalog", "to", "/checkout"));
+            }
+            crumbs.add(crumb);
+        }
+        return crumbs;
+    }
+}
@@ -0,0 +1,46 @@
+package com.errortracker.benchmark;
+
+import com.errortracker.entity.Project;
+import com.errortracker.service.IngestRateLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest quota check under contention: all threads hit one hot project (crash loop,
+ * mostly over quota) or spread over many projects (mostly under quota).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+    @Param({"1", "1000"})
+    public int projectCount;
+    
+    private IngestRateLimiter rateLimiter;
+    private Project[] projects;
+    
+    @Setup
+    public void setup() {
+        rateLimiter = new IngestRateLimiter(100, 500, 0.1);
+        projects = new Project[projectCount];
+        for (int i = 0; i < projectCount; i++) {
+            projects[i] = new Project();
+            projects[i].setId(i + 1);
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+    
+    @Benchmark
+    public IngestRateLimiter.Decision acquire(Cursor cursor) {
+        return rateLimiter.acquire(projects[cursor.next++ % projects.length]);
+    }
+}
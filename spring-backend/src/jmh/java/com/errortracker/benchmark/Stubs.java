@@ -0,0 +1,104 @@
+package com.errortracker.benchmark;
+
+import com.errortracker.repository.ErrorEventRepository;
+import com.errortracker.repository.EventBreadcrumbsRepository;
+import com.errortracker.repository.EventDimensionRepository;
+import com.errortracker.service.BreadcrumbCodec;
+import com.errortracker.service.ErrorEventService;
+import com.errortracker.service.EventDimensionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * In-memory stand-ins for Spring Data repositories so benchmarks measure
+ * mapping and serialization without a database.
+ */
+final class Stubs {
+    private static final AtomicLong IDS = new AtomicLong();
+    
+    private static final PlatformTransactionManager NO_TRANSACTIONS = new PlatformTransactionManager() {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+        
+        @Override
+        public void commit(TransactionStatus status) {}
+        
+        @Override
+        public void rollback(TransactionStatus status) {}
+    };
+    
+    private Stubs() {}
+    
+    /** ErrorEventService over stubs; dimensions intern once and are cached afterwards, as in production. */
+    static ErrorEventService errorEventService() {
+        EventDimensionService dimensions = new EventDimensionService(
+            repository(EventDimensionRepository.class), repository(ErrorEventRepository.class),
+            jdbcTemplate(), BenchmarkMappers.json(), new SimpleMeterRegistry(),
+            Set.of("os", "osVersion", "model", "manufacturer"), Set.of("version", "build", "environment", "sdk"), 10_000);
+        return new ErrorEventService(repository(ErrorEventRepository.class), dimensions,
+            repository(EventBreadcrumbsRepository.class), new BreadcrumbCodec(), new TransactionTemplate(NO_TRANSACTIONS),
+            null); // tiered payload reads are not benchmarked
+    }
+    
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "save":
+                    return assignId(args[0]);
+                case "saveAll":
+                    return args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName() + "Stub";
+                default:
+                    break;
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == Optional.class) return Optional.empty();
+            if (returnType == List.class) return List.of();
+            if (returnType == long.class) return 0L;
+            if (returnType == int.class) return 0;
+            if (returnType == boolean.class) return false;
+            return null;
+        });
+    }
+    
+    // Dimension inserts go through JDBC (INSERT ... RETURNING id); answer with a fresh id
+    static JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate() {
+            @Override
+            public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+                return List.of(elementType.cast(IDS.incrementAndGet()));
+            }
+        };
+    }
+    
+    // Stands in for the database-generated id on entities that have none yet
+    private static Object assignId(Object entity) throws ReflectiveOperationException {
+        Method getter = entity.getClass().getMethod("getId");
+        if (getter.invoke(entity) == null) {
+            Class<?> idType = getter.getReturnType();
+            Object id = idType == Long.class ? (Object) IDS.incrementAndGet() : (Object) (int) IDS.incrementAndGet();
+            entity.getClass().getMethod("setId", idType).invoke(entity, id);
+        }
+        return entity;
+    }
+}
@@ -2,8 +2,10 @@ package com.errortracker;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ErrorTrackerApplication {
     public static void main(String[] args) {
         SpringApplication.run(ErrorTrackerApplication.class, args);
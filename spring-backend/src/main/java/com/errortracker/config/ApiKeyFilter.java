@@ -0,0 +1,85 @@
+package com.errortracker.config;
+
+import com.errortracker.entity.Project;
+import com.errortracker.service.ProjectService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Authenticates ingest requests from a header before the body is read, so a bad key
+ * costs a map lookup instead of parsing a payload full of stack traces. Accepts
+ * "X-Api-Key: <key>" or "Authorization: DSN https://<key>@host/...". Requests without
+ * either header pass through and the controller falls back to the apiKey body field.
+ */
+@Component
+@Order(1)
+public class ApiKeyFilter extends OncePerRequestFilter {
+    public static final String PROJECT_ATTRIBUTE = "com.errortracker.ingest.project";
+    private static final String API_KEY_HEADER = "X-Api-Key";
+    private static final String DSN_SCHEME = "DSN ";
+    
+    private final ProjectService projectService;
+    
+    public ApiKeyFilter(ProjectService projectService) {
+        this.projectService = projectService;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !request.getRequestURI().startsWith("/api/ingest");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String apiKey = headerApiKey(request);
+        if (apiKey == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        Optional<Project> project = apiKey.isEmpty() ? Optional.empty() : projectService.getProjectByApiKey(apiKey);
+        if (project.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            // Close instead of letting the container drain an unread body for keep-alive
+            response.setHeader(HttpHeaders.CONNECTION, "close");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"message\":\"Invalid API Key\"}");
+            return;
+        }
+        
+        request.setAttribute(PROJECT_ATTRIBUTE, project.get());
+        filterChain.doFilter(request, response);
+    }
+    
+    /** Key from the headers; null if none was sent, "" if the header is malformed. */
+    static String headerApiKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null) {
+            return apiKey.trim();
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, DSN_SCHEME, 0, DSN_SCHEME.length())) {
+            return null;
+        }
+        String dsn = authorization.substring(DSN_SCHEME.length()).trim();
+        int schemeEnd = dsn.indexOf("://");
+        int at = dsn.indexOf('@');
+        if (schemeEnd < 0 || at <= schemeEnd + 3) {
+            return "";
+        }
+        String userInfo = dsn.substring(schemeEnd + 3, at);
+        int colon = userInfo.indexOf(':');
+        return colon >= 0 ? userInfo.substring(0, colon) : userInfo;
+    }
+}
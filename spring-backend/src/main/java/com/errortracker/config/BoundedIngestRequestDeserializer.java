@@ -0,0 +1,230 @@
+package com.errortracker.config;
+
+import com.errortracker.dto.IngestRequest;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token-by-token reader for IngestRequest that never builds more than the configured
+ * limits allow: oversized strings are cut with a marker, breadcrumbs beyond the limit
+ * are dropped oldest-first, and nested maps/arrays are capped in size and depth.
+ * Skipped subtrees are passed over without being materialized. Oversized payloads are
+ * stored truncated instead of rejected; the raw body size is capped separately by
+ * RequestDecompressionFilter.
+ *
+ * Strings are the exception to "never builds": Jackson has already buffered the whole
+ * token when it reaches text(), so only what is kept is bounded here. The buffer itself
+ * is capped by the stream read constraints set in IngestParsingConfig.
+ */
+public class BoundedIngestRequestDeserializer extends StdDeserializer<IngestRequest> {
+    static final String TRUNCATED_TEXT = "...[truncated %d chars]";
+    static final String TRUNCATED_DEPTH = "[truncated: nested too deep]";
+    static final String TRUNCATED_ITEMS = "[truncated %d items]";
+    static final String TRUNCATED_BREADCRUMBS = "[truncated %d earlier breadcrumbs]";
+    static final String TRUNCATED_KEY = "_truncated";
+    
+    private final int maxStringChars;
+    private final int maxStackTraceChars;
+    private final int maxValueChars;
+    private final int maxBreadcrumbs;
+    private final int maxCollectionSize;
+    private final int maxDepth;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> truncations = new ConcurrentHashMap<>();
+    
+    public BoundedIngestRequestDeserializer(int maxStringChars, int maxStackTraceChars, int maxValueChars,
+                                            int maxBreadcrumbs, int maxCollectionSize, int maxDepth,
+                                            MeterRegistry meterRegistry) {
+        super(IngestRequest.class);
+        this.maxStringChars = maxStringChars;
+        this.maxStackTraceChars = maxStackTraceChars;
+        this.maxValueChars = maxValueChars;
+        this.maxBreadcrumbs = maxBreadcrumbs;
+        this.maxCollectionSize = maxCollectionSize;
+        this.maxDepth = maxDepth;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    public IngestRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (!p.isExpectedStartObjectToken()) {
+            return (IngestRequest) ctxt.handleUnexpectedToken(IngestRequest.class, p);
+        }
+        IngestRequest request = new IngestRequest();
+        Truncation truncation = new Truncation();
+        for (String field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+            p.nextToken();
+            truncation.truncated = false;
+            switch (field) {
+                case "apiKey" -> request.setApiKey(string(p, ctxt, maxStringChars, truncation));
+                case "type" -> request.setType(string(p, ctxt, maxStringChars, truncation));
+                case "message" -> request.setMessage(string(p, ctxt, maxStringChars, truncation));
+                case "stackTrace" -> request.setStackTrace(string(p, ctxt, maxStackTraceChars, truncation));
+                case "severity" -> request.setSeverity(string(p, ctxt, maxStringChars, truncation));
+                case "status" -> request.setStatus(string(p, ctxt, maxStringChars, truncation));
+                case "level" -> request.setLevel(string(p, ctxt, maxStringChars, truncation));
+                case "traceId" -> request.setTraceId(string(p, ctxt, maxStringChars, truncation));
+                case "userName" -> request.setUserName(string(p, ctxt, maxStringChars, truncation));
+                // Left to @Size validation rather than cut: a truncated id would dedupe the wrong events
+                case "eventId", "event_id" -> request.setEventId(string(p, ctxt, maxStringChars, truncation));
+                case "deviceInfo" -> request.setDeviceInfo(topLevelMap(p, ctxt, truncation));
+                case "platformInfo" -> request.setPlatformInfo(topLevelMap(p, ctxt, truncation));
+                case "tags" -> request.setTags(topLevelMap(p, ctxt, truncation));
+                case "breadcrumbs" -> request.setBreadcrumbs(breadcrumbs(p, truncation));
+                case "occurredAt" -> request.setOccurredAt(p.currentToken() == JsonToken.VALUE_NULL
+                    ? null : ctxt.readValue(p, LocalDateTime.class));
+                default -> p.skipChildren();
+            }
+            if (truncation.truncated) {
+                truncations.computeIfAbsent(field, f -> Counter.builder("ingest.truncated")
+                    .description("Ingest fields stored truncated")
+                    .tag("field", f)
+                    .register(meterRegistry)).increment();
+            }
+        }
+        return request;
+    }
+    
+    private String string(JsonParser p, DeserializationContext ctxt, int max, Truncation truncation) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            return text(p, max, truncation);
+        }
+        if (token.isScalarValue()) {
+            return p.getValueAsString();
+        }
+        return (String) ctxt.handleUnexpectedToken(String.class, p);
+    }
+    
+    // Keeps at most max chars of the token; the parser's own buffer already holds all of it
+    private String text(JsonParser p, int max, Truncation truncation) throws IOException {
+        int length = p.getTextLength();
+        if (length <= max) {
+            return p.getText();
+        }
+        truncation.truncated = true;
+        char[] chars = p.getTextCharacters();
+        int offset = p.getTextOffset();
+        int keep = Character.isHighSurrogate(chars[offset + max - 1]) ? max - 1 : max;
+        return new String(chars, offset, keep) + String.format(TRUNCATED_TEXT, length - keep);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> topLevelMap(JsonParser p, DeserializationContext ctxt, Truncation truncation) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            return (Map<String, Object>) ctxt.handleUnexpectedToken(Map.class, p);
+        }
+        return map(p, 1, truncation);
+    }
+    
+    private Object breadcrumbs(JsonParser p, Truncation truncation) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            return value(p, 1, truncation);
+        }
+        // SDKs send breadcrumbs oldest first; the ones leading up to the error matter most
+        ArrayDeque<Object> kept = new ArrayDeque<>(Math.min(maxBreadcrumbs, 16));
+        int dropped = 0;
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            Object crumb = value(p, 2, truncation);
+            if (kept.size() == maxBreadcrumbs) {
+                kept.pollFirst();
+                dropped++;
+            }
+            kept.addLast(crumb);
+        }
+        List<Object> crumbs = new ArrayList<>(kept.size() + 1);
+        if (dropped > 0) {
+            truncation.truncated = true;
+            crumbs.add(String.format(TRUNCATED_BREADCRUMBS, dropped));
+        }
+        crumbs.addAll(kept);
+        return crumbs;
+    }
+    
+    private Object value(JsonParser p, int depth, Truncation truncation) throws IOException {
+        switch (p.currentToken()) {
+            case START_OBJECT:
+            case START_ARRAY:
+                if (depth > maxDepth) {
+                    p.skipChildren();
+                    truncation.truncated = true;
+                    return TRUNCATED_DEPTH;
+                }
+                return p.currentToken() == JsonToken.START_OBJECT ? map(p, depth, truncation) : list(p, depth, truncation);
+            case VALUE_STRING:
+                return text(p, maxValueChars, truncation);
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return p.getNumberValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_EMBEDDED_OBJECT:
+                return p.getEmbeddedObject();
+            default:
+                return null;
+        }
+    }
+    
+    private Map<String, Object> map(JsonParser p, int depth, Truncation truncation) throws IOException {
+        Map<String, Object> map = new LinkedHashMap<>();
+        int dropped = 0;
+        for (String key = p.nextFieldName(); key != null; key = p.nextFieldName()) {
+            p.nextToken();
+            if (map.size() >= maxCollectionSize) {
+                p.skipChildren();
+                dropped++;
+                continue;
+            }
+            map.put(key, value(p, depth + 1, truncation));
+        }
+        if (dropped > 0) {
+            truncation.truncated = true;
+            map.put(TRUNCATED_KEY, dropped);
+        }
+        return map;
+    }
+    
+    private List<Object> list(JsonParser p, int depth, Truncation truncation) throws IOException {
+        List<Object> list = new ArrayList<>();
+        int dropped = 0;
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            if (list.size() >= maxCollectionSize) {
+                p.skipChildren();
+                dropped++;
+                continue;
+            }
+            list.add(value(p, depth + 1, truncation));
+        }
+        if (dropped > 0) {
+            truncation.truncated = true;
+            list.add(String.format(TRUNCATED_ITEMS, dropped));
+        }
+        return list;
+    }
+    
+    private static final class Truncation {
+        boolean truncated;
+    }
+}
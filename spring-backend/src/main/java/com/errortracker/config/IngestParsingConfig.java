@@ -0,0 +1,60 @@
+package com.errortracker.config;
+
+import com.errortracker.dto.IngestRequest;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Installs BoundedIngestRequestDeserializer. Boot adds Module beans to its
+ * Jackson2ObjectMapperBuilder, so the JSON, Smile and CBOR converters and the spool
+ * replayer all read IngestRequest within the same limits.
+ *
+ * The parser buffers a whole string token before the deserializer can cut it, so the
+ * field limits alone would leave one string bounded only by the body size. The stream
+ * read constraints cap that buffer for every mapper built by Boot: longer strings fail
+ * the request with 400 instead of being stored truncated.
+ */
+@Configuration
+public class IngestParsingConfig {
+    @Value("${app.ingest.limits.max-string-chars:8192}")
+    private int maxStringChars;
+    
+    @Value("${app.ingest.limits.max-stack-trace-chars:131072}")
+    private int maxStackTraceChars;
+    
+    @Value("${app.ingest.limits.max-value-chars:2048}")
+    private int maxValueChars;
+    
+    @Value("${app.ingest.limits.max-breadcrumbs:100}")
+    private int maxBreadcrumbs;
+    
+    @Value("${app.ingest.limits.max-collection-size:100}")
+    private int maxCollectionSize;
+    
+    @Value("${app.ingest.limits.max-depth:5}")
+    private int maxDepth;
+    
+    @Value("${app.ingest.limits.max-token-chars:262144}")
+    private int maxTokenChars;
+    
+    @Bean
+    public Module boundedIngestModule(MeterRegistry meterRegistry) {
+        return new SimpleModule("bounded-ingest").addDeserializer(IngestRequest.class,
+            new BoundedIngestRequestDeserializer(maxStringChars, maxStackTraceChars, maxValueChars,
+                maxBreadcrumbs, maxCollectionSize, maxDepth, meterRegistry));
+    }
+    
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer boundedStringTokens() {
+        // Never below the largest field limit, or that limit could only reject, never truncate
+        int maxLength = Math.max(maxTokenChars, Math.max(maxStackTraceChars, maxStringChars) + 1);
+        StreamReadConstraints constraints = StreamReadConstraints.builder().maxStringLength(maxLength).build();
+        return builder -> builder.postConfigurer(mapper -> mapper.getFactory().setStreamReadConstraints(constraints));
+    }
+}
@@ -0,0 +1,10 @@
+package com.errortracker.config;
+
+import java.io.IOException;
+
+/** Thrown while reading an ingest body once it inflates past the allowed size. */
+public class PayloadTooLargeException extends IOException {
+    public PayloadTooLargeException(long limit) {
+        super("Payload exceeds " + limit + " bytes");
+    }
+}
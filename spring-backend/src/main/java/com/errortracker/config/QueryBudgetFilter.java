@@ -0,0 +1,81 @@
+package com.errortracker.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts SQL statements and JDBC time per /api request, publishes them per endpoint and
+ * logs requests that exceed the query budget or repeat one statement (likely N+1).
+ */
+@Component
+@ConditionalOnProperty(name = "app.query-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.query-stats.budget:20}")
+    private int queryBudget;
+    
+    @Value("${app.query-stats.repeat-threshold:5}")
+    private int repeatThreshold;
+    
+    public QueryBudgetFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryStats stats = QueryStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryStats.end();
+            report(request, stats);
+        }
+    }
+    
+    private void report(HttpServletRequest request, QueryStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "UNKNOWN");
+        
+        DistributionSummary.builder("http.server.requests.db.statements")
+            .description("SQL statements issued per request")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry)
+            .record(stats.getStatements());
+        Timer.builder("http.server.requests.db.time")
+            .description("JDBC execution time per request")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry)
+            .record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        
+        if (stats.getStatements() > queryBudget) {
+            System.out.println("[QUERIES] " + endpoint + " issued " + stats.getStatements() +
+                " statements (budget " + queryBudget + "), " + TimeUnit.NANOSECONDS.toMillis(stats.getJdbcNanos()) + "ms in JDBC");
+        }
+        Map.Entry<String, Integer> repeated = stats.mostRepeated();
+        if (repeated != null && repeated.getValue() >= repeatThreshold) {
+            System.out.println("[QUERIES] Possible N+1 in " + endpoint + ": same statement ran " +
+                repeated.getValue() + " times: " + repeated.getKey().replaceAll("\\s+", " "));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.errortracker.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+public class QueryCountingInspector implements StatementInspector {
+    @Override
+    public String inspect(String sql) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.recordStatement(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,54 @@
+package com.errortracker.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Statement count and JDBC time for the HTTP request running on the current thread.
+ * Populated by QueryCountingInspector and QueryTimingListener, opened and closed by QueryBudgetFilter.
+ */
+public final class QueryStats {
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+    
+    private int statements;
+    private long jdbcNanos;
+    private final Map<String, Integer> statementCounts = new HashMap<>();
+    
+    static QueryStats begin() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+    
+    static void end() {
+        CURRENT.remove();
+    }
+    
+    static QueryStats current() {
+        return CURRENT.get();
+    }
+    
+    void recordStatement(String sql) {
+        statements++;
+        statementCounts.merge(sql, 1, Integer::sum);
+    }
+    
+    void recordJdbcTime(long nanos) {
+        jdbcNanos += nanos;
+    }
+    
+    public int getStatements() { return statements; }
+    
+    public long getJdbcNanos() { return jdbcNanos; }
+    
+    /** The statement issued most often in this request, the usual N+1 signature. */
+    Map.Entry<String, Integer> mostRepeated() {
+        Map.Entry<String, Integer> top = null;
+        for (Map.Entry<String, Integer> entry : statementCounts.entrySet()) {
+            if (top == null || entry.getValue() > top.getValue()) {
+                top = entry;
+            }
+        }
+        return top;
+    }
+}
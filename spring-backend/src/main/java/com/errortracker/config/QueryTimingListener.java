@@ -0,0 +1,36 @@
+package com.errortracker.config;
+
+import org.hibernate.SessionEventListener;
+
+/** Created by Hibernate once per session (hibernate.session.events.auto). */
+public class QueryTimingListener implements SessionEventListener {
+    private long executeStart;
+    private long batchStart;
+    
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(executeStart);
+    }
+    
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(batchStart);
+    }
+    
+    private void record(long start) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.recordJdbcTime(System.nanoTime() - start);
+        }
+    }
+}
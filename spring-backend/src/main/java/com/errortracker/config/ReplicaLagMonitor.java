@@ -0,0 +1,71 @@
+package com.errortracker.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the replica's replay lag. The replica only serves reads while the lag is within
+ * max-lag-ms and the check itself succeeds; otherwise routed reads fall back to the primary.
+ * A verdict older than a few check intervals (the check is stuck, e.g. waiting for a
+ * connection) counts as a failed check.
+ */
+public class ReplicaLagMonitor {
+    // A replica that has replayed everything it received is current even if the primary has
+    // been idle (the replay timestamp would keep ageing). Not in recovery means a plain server.
+    private static final String LAG_SQL = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+        "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+        "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+    
+    private static final int STALE_AFTER_INTERVALS = 3;
+    
+    private final JdbcTemplate replica;
+    private final long maxLagMs;
+    private final long staleAfterNanos;
+    private volatile boolean usable;
+    private volatile long checkedAtNanos;
+    private volatile double lagMs = -1;
+    
+    public ReplicaLagMonitor(DataSource replicaDataSource, long maxLagMs, long checkIntervalMs, MeterRegistry meterRegistry) {
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.replica.setQueryTimeout(1);
+        this.maxLagMs = maxLagMs;
+        this.staleAfterNanos = TimeUnit.MILLISECONDS.toNanos(checkIntervalMs * STALE_AFTER_INTERVALS);
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagMs)
+            .description("Replica replay lag; -1 when the replica could not be reached")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:1000}", scheduler = ReplicaDataSourceConfig.LAG_CHECK_SCHEDULER)
+    public void check() {
+        boolean wasUsable = usable;
+        try {
+            Double lag = replica.queryForObject(LAG_SQL, Double.class);
+            checkedAtNanos = System.nanoTime();
+            lagMs = lag != null ? lag : 0;
+            usable = lagMs <= maxLagMs;
+            if (wasUsable && !usable) {
+                System.out.println("[DATASOURCE] Replica lag " + Math.round(lagMs) + "ms over " + maxLagMs + "ms; reads go to the primary");
+            }
+        } catch (DataAccessException e) {
+            lagMs = -1;
+            usable = false;
+            if (wasUsable) {
+                System.err.println("[DATASOURCE] Replica unreachable, reads go to the primary: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+        if (!wasUsable && usable) {
+            System.out.println("[DATASOURCE] Replica in use (lag " + Math.round(lagMs) + "ms)");
+        }
+    }
+    
+    public boolean isReplicaUsable() {
+        return usable && System.nanoTime() - checkedAtNanos < staleAfterNanos;
+    }
+}
@@ -0,0 +1,58 @@
+package com.errortracker.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Sends read-only transactions started by the dashboard services to the replica, everything
+ * else to the primary. Spring names declarative transactions after the method that opened
+ * them ("com.errortracker.service.ProjectService.getProject"), which is what tells a
+ * dashboard read apart from the read-only transactions Spring Data opens for any repository
+ * call, ingest lookups included. Must sit behind a LazyConnectionDataSourceProxy so the
+ * connection is only picked once the transaction's read-only flag and name are set.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+    
+    private final List<String> routedPrefixes;
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter replicaReads;
+    private final Counter fallbackReads;
+    
+    public ReplicaRoutingDataSource(List<String> routedPrefixes, ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+        this.routedPrefixes = routedPrefixes;
+        this.lagMonitor = lagMonitor;
+        this.replicaReads = Counter.builder("datasource.routed.reads").tag("target", REPLICA).register(meterRegistry);
+        this.fallbackReads = Counter.builder("datasource.routed.reads").tag("target", PRIMARY).register(meterRegistry);
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || !isRouted(TransactionSynchronizationManager.getCurrentTransactionName())) {
+            return PRIMARY;
+        }
+        if (lagMonitor.isReplicaUsable()) {
+            replicaReads.increment();
+            return REPLICA;
+        }
+        fallbackReads.increment();
+        return PRIMARY;
+    }
+    
+    private boolean isRouted(String transactionName) {
+        if (transactionName == null) {
+            return false;
+        }
+        for (String prefix : routedPrefixes) {
+            if (transactionName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
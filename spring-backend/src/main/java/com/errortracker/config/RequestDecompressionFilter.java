@@ -0,0 +1,230 @@
+package com.errortracker.config;
+
+import com.errortracker.entity.Project;
+import com.github.luben.zstd.ZstdInputStream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decodes gzip, deflate (zlib) and zstd ingest bodies as a stream, so the JSON parser
+ * reads inflated bytes directly and the full body is never buffered. Every ingest body,
+ * compressed or not, is capped at the project's inflated-size limit; going over raises
+ * PayloadTooLargeException mid-parse, which EventController maps to 413.
+ * Runs after ApiKeyFilter so header-keyed requests get their project's limit.
+ */
+@Component
+@Order(2)
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.ingest.max-payload-bytes:1048576}")
+    private long defaultMaxPayloadBytes;
+    
+    public RequestDecompressionFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !request.getRequestURI().startsWith("/api/ingest");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long limit = defaultMaxPayloadBytes;
+        Object project = request.getAttribute(ApiKeyFilter.PROJECT_ATTRIBUTE);
+        if (project instanceof Project p && p.getMaxPayloadBytes() != null) {
+            limit = p.getMaxPayloadBytes();
+        }
+        
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        encoding = encoding == null ? "identity" : encoding.trim().toLowerCase();
+        if (!isSupported(encoding)) {
+            reject(response, HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "Unsupported Content-Encoding");
+            return;
+        }
+        if ("identity".equals(encoding) && request.getContentLengthLong() > limit) {
+            reject(response, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "Payload too large");
+            return;
+        }
+        
+        Counter.builder("ingest.requests.encoding")
+            .description("Ingest requests by Content-Encoding")
+            .tag("encoding", encoding)
+            .register(meterRegistry)
+            .increment();
+        filterChain.doFilter(new DecodedRequest(request, encoding, limit), response);
+    }
+    
+    private static boolean isSupported(String encoding) {
+        switch (encoding) {
+            case "identity":
+            case "gzip":
+            case "x-gzip":
+            case "deflate":
+            case "zstd":
+                return true;
+            default:
+                return false;
+        }
+    }
+    
+    private static void reject(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setHeader(HttpHeaders.CONNECTION, "close");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"" + message + "\"}");
+    }
+    
+    /** The request as the controller should see it: decoded body, no encoding or length headers. */
+    private static final class DecodedRequest extends HttpServletRequestWrapper {
+        private final String encoding;
+        private final long limit;
+        private ServletInputStream body;
+        
+        DecodedRequest(HttpServletRequest request, String encoding, long limit) {
+            super(request);
+            this.encoding = encoding;
+            this.limit = limit;
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (body == null) {
+                ServletInputStream raw = super.getInputStream();
+                InputStream decoded = switch (encoding) {
+                    case "gzip", "x-gzip" -> new GZIPInputStream(raw, 8192);
+                    case "deflate" -> new InflaterInputStream(raw);
+                    case "zstd" -> new ZstdInputStream(raw);
+                    default -> raw;
+                };
+                body = new BoundedServletInputStream(raw, decoded, limit);
+            }
+            return body;
+        }
+        
+        @Override
+        public int getContentLength() {
+            return "identity".equals(encoding) ? super.getContentLength() : -1;
+        }
+        
+        @Override
+        public long getContentLengthLong() {
+            return "identity".equals(encoding) ? super.getContentLengthLong() : -1;
+        }
+        
+        @Override
+        public String getHeader(String name) {
+            return hidden(name) ? null : super.getHeader(name);
+        }
+        
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return hidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+        
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                .filter(name -> !hidden(name))
+                .toList());
+        }
+        
+        private boolean hidden(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                || (!"identity".equals(encoding) && HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name));
+        }
+    }
+    
+    /**
+     * Counts the decoded bytes against the limit. An unencoded body keeps the container's
+     * non-blocking support; a decoder can only pull from the raw stream blocking, so an
+     * encoded body refuses a ReadListener the way the servlet API does for unusable async IO.
+     */
+    private static final class BoundedServletInputStream extends ServletInputStream {
+        private final ServletInputStream source;
+        private final InputStream in;
+        private final long limit;
+        private long read;
+        private boolean finished;
+        
+        BoundedServletInputStream(ServletInputStream source, InputStream in, long limit) {
+            this.source = source;
+            this.in = in;
+            this.limit = limit;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b < 0) {
+                finished = true;
+            } else {
+                count(1);
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = in.read(buffer, offset, length);
+            if (n < 0) {
+                finished = true;
+            } else {
+                count(n);
+            }
+            return n;
+        }
+        
+        private void count(int n) throws IOException {
+            read += n;
+            if (read > limit) {
+                throw new PayloadTooLargeException(limit);
+            }
+        }
+        
+        @Override
+        public boolean isFinished() {
+            return finished || (in == source && source.isFinished());
+        }
+        
+        @Override
+        public boolean isReady() {
+            return in != source || source.isReady();
+        }
+        
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            if (in != source) {
+                throw new IllegalStateException("Non-blocking reads are not supported for encoded ingest bodies");
+            }
+            source.setReadListener(readListener);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
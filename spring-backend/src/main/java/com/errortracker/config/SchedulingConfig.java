@@ -0,0 +1,32 @@
+package com.errortracker.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * The default scheduler (spring.task.scheduling.*) runs the short periodic tasks: spool
+ * replay, load shedding, the email outbox, dedupe rotation. Backfills and nightly jobs
+ * that can run for minutes go on BATCH_SCHEDULER, so they never hold those up.
+ */
+@Configuration
+public class SchedulingConfig {
+    public static final String BATCH_SCHEDULER = "batchJobScheduler";
+    
+    @Bean
+    @Primary
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+    
+    @Bean(name = BATCH_SCHEDULER)
+    public ThreadPoolTaskScheduler batchJobScheduler(@Value("${app.scheduling.batch-pool-size:3}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("batch-job-");
+        return scheduler;
+    }
+}
@@ -5,13 +5,19 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
@@ -30,6 +36,38 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
     
+    /**
+     * Actuator endpoints other than health (the Prometheus scrape carries per-project tags and
+     * ingest volumes) need HTTP Basic as app.metrics.username; with no password set, only
+     * health is reachable. The scrape user is not an application user.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http, PasswordEncoder passwordEncoder,
+                                                   @Value("${app.metrics.username:prometheus}") String username,
+                                                   @Value("${app.metrics.password:}") String password) throws Exception {
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager();
+        if (!password.isBlank()) {
+            users.createUser(User.withUsername(username).password(passwordEncoder.encode(password)).roles("METRICS").build());
+        }
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(users);
+        provider.setPasswordEncoder(passwordEncoder);
+        
+        http
+            .securityMatcher("/actuator/**")
+            .authorizeHttpRequests(auth -> auth
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .anyRequest().hasRole("METRICS")
+            )
+            .authenticationManager(new ProviderManager(provider))
+            .httpBasic(basic -> {})
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .csrf(csrf -> csrf.disable());
+        
+        return http.build();
+    }
+    
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -37,7 +75,7 @@ public class SecurityConfig {
                 .ignoringRequestMatchers("/api/**")
             )
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/api/register", "/api/login", "/api/ingest", "/api/auth/user", "/api/register/invite/**", "/api/feature-flags").permitAll()
+                .requestMatchers("/api/register", "/api/login", "/api/ingest", "/api/ingest/batch", "/api/auth/user", "/api/register/invite/**", "/api/feature-flags").permitAll()
                 .requestMatchers("/api/**").authenticated()
                 .anyRequest().permitAll()
             )
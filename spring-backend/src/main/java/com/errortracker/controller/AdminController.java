@@ -10,10 +10,16 @@ import com.errortracker.service.ProjectService;
 import com.errortracker.service.ProjectUserService;
 import com.errortracker.service.UserService;
 import jakarta.servlet.http.HttpSession;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -60,6 +66,53 @@ public class AdminController {
         return ResponseEntity.ok(users);
     }
     
+    private static final List<String> USER_SORT_FIELDS = List.of("id", "username", "email", "createdAt");
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    @GetMapping("/users/search")
+    public ResponseEntity<?> searchUsers(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "username") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", "Admin access required"));
+        }
+        
+        if (!USER_SORT_FIELDS.contains(sort)) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Invalid sort. Must be one of: " + String.join(", ", USER_SORT_FIELDS)));
+        }
+        
+        Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Pageable pageable = PageRequest.of(
+            Math.max(page, 0),
+            Math.min(Math.max(size, 1), MAX_PAGE_SIZE),
+            Sort.by(sortDirection, sort).and(Sort.by("id"))
+        );
+        
+        Slice<User> slice = userService.searchUsers(q, pageable);
+        List<UserResponse> users = slice.getContent().stream()
+            .map(UserResponse::fromUser)
+            .collect(Collectors.toList());
+        
+        // Planner estimate for the whole directory; filtered searches only report hasNext
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (q == null || q.isBlank()) {
+            response.header("X-Total-Count-Estimate", String.valueOf(userService.estimateUserCount()));
+        }
+        
+        return response.body(Map.of(
+                "users", users,
+                "page", slice.getNumber(),
+                "size", slice.getSize(),
+                "hasNext", slice.hasNext()
+            ));
+    }
+    
     @PostMapping("/invitations")
     public ResponseEntity<?> inviteUser(@RequestBody InviteRequest request, HttpSession session) {
         if (!isAdmin(session)) {
@@ -82,6 +135,51 @@ public class AdminController {
         return ResponseEntity.ok(InvitationResponse.fromInvitation(invitation));
     }
     
+    private static final int MAX_BULK_INVITES = 1000;
+    
+    @PostMapping(value = "/invitations/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> bulkInviteUsers(@RequestBody BulkInviteRequest request, HttpSession session) {
+        return bulkInvite(request.getEmails() != null ? request.getEmails() : List.of(), session);
+    }
+    
+    @PostMapping(value = "/invitations/bulk", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<?> bulkInviteUsersCsv(@RequestBody String csv, HttpSession session) {
+        // Email is the first column; lines without an @ (headers, blanks) are ignored
+        List<String> emails = new ArrayList<>();
+        for (String line : csv.split("\\r?\\n")) {
+            String first = line.split("[,;]", 2)[0].trim().replace("\"", "");
+            if (first.contains("@")) {
+                emails.add(first);
+            }
+        }
+        return bulkInvite(emails, session);
+    }
+    
+    private ResponseEntity<?> bulkInvite(List<String> emails, HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", "Admin access required"));
+        }
+        
+        User currentUser = getCurrentUser(session);
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("error", "Not authenticated"));
+        }
+        
+        if (emails.isEmpty()) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "No emails provided"));
+        }
+        
+        if (emails.size() > MAX_BULK_INVITES) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Too many emails. Maximum per request is " + MAX_BULK_INVITES));
+        }
+        
+        return ResponseEntity.ok(invitationService.createInvitations(emails, currentUser.getId()));
+    }
+    
     @GetMapping("/invitations")
     public ResponseEntity<?> getInvitations(HttpSession session) {
         if (!isAdmin(session)) {
@@ -122,7 +220,7 @@ public class AdminController {
                 .body(Map.of("error", "Cannot assign blocked user to project"));
         }
         
-        Optional<Project> project = projectService.getProject(request.getProjectId());
+        Optional<ProjectSummary> project = projectService.getProjectSummary(request.getProjectId());
         if (project.isEmpty()) {
             return ResponseEntity.badRequest()
                 .body(Map.of("error", "Project not found"));
@@ -169,25 +267,57 @@ public class AdminController {
                 .body(Map.of("error", "Admin access required"));
         }
         
-        List<ProjectUser> projectUsers = projectUserService.getUsersByProjectId(projectId);
-        
-        List<Map<String, Object>> result = projectUsers.stream()
-            .map(pu -> {
-                Optional<User> user = userService.findById(pu.getUserId());
-                return Map.of(
-                    "id", (Object) pu.getId(),
-                    "userId", pu.getUserId(),
-                    "projectId", pu.getProjectId(),
-                    "role", pu.getRole(),
-                    "username", user.map(User::getUsername).orElse("Unknown"),
-                    "email", user.map(User::getEmail).orElse("")
-                );
-            })
+        List<ProjectMemberView> members = projectUserService.getProjectMembers(projectId);
+        
+        List<Map<String, Object>> result = members.stream()
+            .map(member -> Map.of(
+                "id", (Object) member.getId(),
+                "userId", member.getUserId(),
+                "projectId", member.getProjectId(),
+                "role", member.getRole(),
+                "username", member.getUsername() != null ? member.getUsername() : "Unknown",
+                "email", member.getEmail() != null ? member.getEmail() : ""
+            ))
             .collect(Collectors.toList());
         
         return ResponseEntity.ok(result);
     }
     
+    @PutMapping("/projects/{projectId}/quota")
+    public ResponseEntity<?> updateProjectQuota(
+            @PathVariable Integer projectId,
+            @RequestBody ProjectQuotaRequest request,
+            HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", "Admin access required"));
+        }
+        
+        if ((request.getRateLimitPerSecond() != null && request.getRateLimitPerSecond() < 1)
+                || (request.getRateLimitBurst() != null && request.getRateLimitBurst() < 1)) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Rate limit and burst must be at least 1"));
+        }
+        if (request.getMaxPayloadBytes() != null && request.getMaxPayloadBytes() < 1024) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Max payload must be at least 1024 bytes"));
+        }
+        Double sampleRate = request.getOverQuotaSampleRate();
+        if (sampleRate != null && (sampleRate < 0 || sampleRate > 1)) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Sample rate must be between 0 and 1"));
+        }
+        
+        try {
+            Project project = projectService.updateQuota(projectId, request.getRateLimitPerSecond(),
+                request.getRateLimitBurst(), sampleRate, request.getMaxPayloadBytes());
+            return ResponseEntity.ok(project);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @GetMapping("/users/{userId}/projects")
     public ResponseEntity<?> getUserProjects(@PathVariable Integer userId, HttpSession session) {
         if (!isAdmin(session)) {
@@ -195,19 +325,16 @@ public class AdminController {
                 .body(Map.of("error", "Admin access required"));
         }
         
-        List<ProjectUser> userProjects = projectUserService.getProjectsByUserId(userId);
+        List<UserProjectView> userProjects = projectUserService.getUserProjectViews(userId);
         
         List<Map<String, Object>> result = userProjects.stream()
-            .map(pu -> {
-                Optional<Project> project = projectService.getProject(pu.getProjectId());
-                return Map.of(
-                    "id", (Object) pu.getId(),
-                    "userId", pu.getUserId(),
-                    "projectId", pu.getProjectId(),
-                    "role", pu.getRole(),
-                    "projectName", project.map(Project::getName).orElse("Unknown")
-                );
-            })
+            .map(view -> Map.of(
+                "id", (Object) view.getId(),
+                "userId", view.getUserId(),
+                "projectId", view.getProjectId(),
+                "role", view.getRole(),
+                "projectName", view.getProjectName() != null ? view.getProjectName() : "Unknown"
+            ))
             .collect(Collectors.toList());
         
         return ResponseEntity.ok(result);
@@ -1,21 +1,38 @@
 package com.errortracker.controller;
 
+import com.errortracker.config.ApiKeyFilter;
+import com.errortracker.config.PayloadTooLargeException;
+import com.errortracker.dto.IngestBatchRequest;
 import com.errortracker.dto.IngestRequest;
 import com.errortracker.dto.UpdateEventRequest;
 import com.errortracker.entity.ErrorEvent;
 import com.errortracker.entity.Project;
 import com.errortracker.entity.User;
 import com.errortracker.service.ErrorEventService;
+import com.errortracker.service.EventDimensionService;
+import com.errortracker.service.IngestDeduplicator;
+import com.errortracker.service.IngestLoadShedder;
+import com.errortracker.service.IngestMetrics;
+import com.errortracker.service.IngestRateLimiter;
+import com.errortracker.service.IngestService;
 import com.errortracker.service.ProjectService;
 import com.errortracker.service.ProjectUserService;
 import com.errortracker.service.UserService;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -27,12 +44,30 @@ public class EventController {
     private final ProjectService projectService;
     private final UserService userService;
     private final ProjectUserService projectUserService;
+    private final IngestMetrics ingestMetrics;
+    private final IngestService ingestService;
+    private final IngestRateLimiter rateLimiter;
+    private final IngestLoadShedder loadShedder;
+    private final IngestDeduplicator deduplicator;
+    private final EventDimensionService dimensionService;
     
-    public EventController(ErrorEventService errorEventService, ProjectService projectService, UserService userService, ProjectUserService projectUserService) {
+    @Value("${app.ingest.batch.max-events:100}")
+    private int maxBatchEvents;
+    
+    @Value("#{'${app.ingest.response:ack}' == 'full'}")
+    private boolean fullIngestResponse;
+    
+    public EventController(ErrorEventService errorEventService, ProjectService projectService, UserService userService, ProjectUserService projectUserService, IngestMetrics ingestMetrics, IngestService ingestService, IngestRateLimiter rateLimiter, IngestLoadShedder loadShedder, IngestDeduplicator deduplicator, EventDimensionService dimensionService) {
         this.errorEventService = errorEventService;
         this.projectService = projectService;
         this.userService = userService;
         this.projectUserService = projectUserService;
+        this.ingestMetrics = ingestMetrics;
+        this.ingestService = ingestService;
+        this.rateLimiter = rateLimiter;
+        this.loadShedder = loadShedder;
+        this.deduplicator = deduplicator;
+        this.dimensionService = dimensionService;
     }
     
     private Integer getUserId(HttpServletRequest request) {
@@ -93,12 +128,90 @@ public class EventController {
         }
         
         List<ErrorEvent> events = errorEventService.getProjectEvents(projectId, status, severity, type, search);
+        ingestMetrics.recordEventListSize(events.size());
         return ResponseEntity.ok(events);
     }
 
     
+    // Events per OS, OS version, device model, app version or environment over the last N days
+    @GetMapping("/projects/{projectId}/events/breakdown")
+    public ResponseEntity<?> eventBreakdown(
+            @PathVariable Integer projectId,
+            @RequestParam(defaultValue = "os") String by,
+            @RequestParam(defaultValue = "7") int days,
+            HttpServletRequest request) {
+        
+        Integer userId = getUserId(request);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        if (isUserBlocked(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("message", "Account blocked"));
+        }
+        
+        if (!dimensionService.isBreakdownField(by) || days < 1 || days > 365) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("message", "by must be one of os, osVersion, model, appVersion, environment and days 1-365"));
+        }
+        
+        Optional<Project> projectOpt = projectService.getProject(projectId);
+        if (projectOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        Project project = projectOpt.get();
+        if (!isAdmin(userId) && !hasProjectAccess(projectId, userId, project)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("message", "Unauthorized"));
+        }
+        
+        return ResponseEntity.ok(dimensionService.breakdown(projectId, by, LocalDateTime.now().minusDays(days)));
+    }
+    
+    // Long-term trend: per-fingerprint daily aggregates left by downsampling retention
+    @GetMapping("/projects/{projectId}/events/history")
+    public ResponseEntity<?> eventHistory(
+            @PathVariable Integer projectId,
+            @RequestParam(defaultValue = "365") int days,
+            HttpServletRequest request) {
+        
+        Integer userId = getUserId(request);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        if (isUserBlocked(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("message", "Account blocked"));
+        }
+        
+        if (days < 1 || days > 3650) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("message", "days must be 1-3650"));
+        }
+        
+        Optional<Project> projectOpt = projectService.getProject(projectId);
+        if (projectOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        Project project = projectOpt.get();
+        if (!isAdmin(userId) && !hasProjectAccess(projectId, userId, project)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("message", "Unauthorized"));
+        }
+        
+        return ResponseEntity.ok(projectService.getEventHistory(projectId, LocalDate.now().minusDays(days)));
+    }
+    
+    // Breadcrumbs are stored apart and only decoded for ?include=breadcrumbs; tiered payloads are read from their segment here
     @GetMapping("/events/{id}")
-    public ResponseEntity<?> getEvent(@PathVariable Integer id, HttpServletRequest request) {
+    public ResponseEntity<?> getEvent(
+            @PathVariable Integer id,
+            @RequestParam(required = false) List<String> include,
+            HttpServletRequest request) {
         Integer userId = getUserId(request);
         if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -122,6 +235,7 @@ public class EventController {
                     return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Unauthorized"));
                 }
+                errorEventService.loadDetails(event, include != null && include.contains("breadcrumbs"));
                 return ResponseEntity.ok(event);
             })
             .orElse(ResponseEntity.notFound().build());
@@ -163,20 +277,222 @@ public class EventController {
             .orElse(ResponseEntity.notFound().build());
     }
     
+    // Ingest body read failures; the decompression filter's size guard surfaces here.
+    // Rethrowing hands other endpoints' errors back to Spring's default 400.
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<?> handleUnreadableBody(HttpMessageNotReadableException e, HttpServletRequest request) {
+        if (!request.getRequestURI().startsWith("/api/ingest")) {
+            throw e;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PayloadTooLargeException) {
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .header(HttpHeaders.CONNECTION, "close")
+                    .body(Map.of("message", cause.getMessage()));
+            }
+        }
+        return ResponseEntity.badRequest()
+            .body(Map.of("message", "Malformed request body"));
+    }
+    
     @PostMapping("/ingest")
-    public ResponseEntity<?> ingestEvent(@Valid @RequestBody IngestRequest ingestRequest) {
-        System.out.println("Receiving error ingestion: " + ingestRequest.getMessage());
+    public ResponseEntity<?> ingestEvent(
+            @Valid @RequestBody IngestRequest ingestRequest,
+            @RequestAttribute(name = ApiKeyFilter.PROJECT_ATTRIBUTE, required = false) Project headerProject,
+            @RequestHeader(name = "Prefer", required = false) String prefer) {
+        Timer.Sample sample = ingestMetrics.startIngest();
         
-        Optional<Project> projectOpt = projectService.getProjectByApiKey(ingestRequest.getApiKey());
+        // Global backpressure comes first: it must not cost a DB round trip
+        if (loadShedder.shouldShed(ingestRequest)) {
+            ingestMetrics.recordIngest(sample, null, "shed");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(loadShedder.getRetryAfterSeconds()))
+                .body(Map.of("message", "Ingest is shedding load"));
+        }
+        
+        // ApiKeyFilter has already resolved header keys; older SDKs send the key in the body
+        Optional<Project> projectOpt;
+        if (headerProject != null) {
+            projectOpt = Optional.of(headerProject);
+        } else if (ingestRequest.getApiKey() == null || ingestRequest.getApiKey().isBlank()) {
+            ingestMetrics.recordIngest(sample, null, "invalid_key");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("message", "API key is required"));
+        } else {
+            projectOpt = projectService.getProjectByApiKey(ingestRequest.getApiKey());
+        }
         if (projectOpt.isEmpty()) {
-            System.out.println("Invalid API Key: " + ingestRequest.getApiKey());
+            ingestMetrics.recordIngest(sample, null, "invalid_key");
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(Map.of("message", "Invalid API Key"));
         }
         
-        ErrorEvent event = errorEventService.createEvent(projectOpt.get().getId(), ingestRequest);
-        System.out.println("Created error event: " + event.getId());
+        Integer projectId = projectOpt.get().getId();
+        
+        // A retry of a stored event is acknowledged again and doesn't use up quota
+        if (ingestRequest.getEventId() != null) {
+            Optional<Integer> duplicateId = deduplicator.findDuplicate(projectId, ingestRequest.getEventId());
+            if (duplicateId.isPresent()) {
+                ingestMetrics.recordIngest(sample, projectId, "duplicate", 0);
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .location(URI.create("/api/events/" + duplicateId.get()));
+                if ("minimal".equals(preference(prefer))) {
+                    return response.header("Preference-Applied", "return=minimal").build();
+                }
+                return response.body(Map.of("id", duplicateId.get(), "duplicate", true));
+            }
+        }
+        
+        IngestRateLimiter.Decision quota = rateLimiter.acquire(projectOpt.get());
+        if (!quota.accepted()) {
+            ingestMetrics.recordIngest(sample, projectId, "rate_limited");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(quota.retryAfterSeconds()))
+                .body(Map.of("message", "Rate limit exceeded"));
+        }
+        
+        ErrorEvent event;
+        try {
+            event = ingestService.ingest(projectOpt.get(), ingestRequest, quota.sampleWeight());
+        } catch (IllegalStateException e) {
+            ingestMetrics.recordIngest(sample, projectId, "shed");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(loadShedder.getRetryAfterSeconds()))
+                .body(Map.of("message", e.getMessage()));
+        }
+        ingestMetrics.recordIngest(sample, projectId, quota.sampleWeight() > 1.0 ? "sampled" : "accepted");
+        
+        return ingestResponse(event, prefer);
+    }
+    
+    /**
+     * SDKs ignore the echoed event, so by default ingest answers with just the id.
+     * "Prefer: return=representation" (or app.ingest.response=full) returns the whole
+     * event as before; "Prefer: return=minimal" returns no body at all.
+     */
+    private ResponseEntity<?> ingestResponse(ErrorEvent event, String prefer) {
+        String returnPreference = preference(prefer);
+        if (returnPreference == null && fullIngestResponse) {
+            returnPreference = "representation";
+        }
+        
+        ResponseEntity.BodyBuilder response;
+        if (event == null) {
+            // Spooled or queued; it will reach the database once the writer catches up
+            response = ResponseEntity.status(HttpStatus.ACCEPTED);
+            if ("minimal".equals(returnPreference)) {
+                return response.header("Preference-Applied", "return=minimal").build();
+            }
+            return response.body(Map.of("status", "queued"));
+        }
         
-        return ResponseEntity.status(HttpStatus.CREATED).body(event);
+        response = ResponseEntity.status(HttpStatus.CREATED)
+            .location(URI.create("/api/events/" + event.getId()));
+        if ("representation".equals(returnPreference)) {
+            return response.body(event);
+        }
+        if ("minimal".equals(returnPreference)) {
+            return response.header("Preference-Applied", "return=minimal").build();
+        }
+        return response.body(Map.of("id", event.getId()));
+    }
+    
+    // The return= value of an RFC 7240 Prefer header, or null
+    private static String preference(String prefer) {
+        if (prefer == null) {
+            return null;
+        }
+        for (String token : prefer.split("[,;]")) {
+            String trimmed = token.trim();
+            if (trimmed.regionMatches(true, 0, "return=", 0, 7)) {
+                return trimmed.substring(7).toLowerCase();
+            }
+        }
+        return null;
+    }
+    
+    @PostMapping("/ingest/batch")
+    public ResponseEntity<?> ingestBatch(
+            @Valid @RequestBody IngestBatchRequest batch,
+            @RequestAttribute(name = ApiKeyFilter.PROJECT_ATTRIBUTE, required = false) Project headerProject) {
+        Timer.Sample sample = ingestMetrics.startIngest();
+        
+        if (batch.getEvents().size() > maxBatchEvents) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("message", "A batch may contain at most " + maxBatchEvents + " events"));
+        }
+        
+        Optional<Project> projectOpt;
+        if (headerProject != null) {
+            projectOpt = Optional.of(headerProject);
+        } else if (batch.getApiKey() == null || batch.getApiKey().isBlank()) {
+            ingestMetrics.recordIngest(sample, null, "invalid_key");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("message", "API key is required"));
+        } else {
+            projectOpt = projectService.getProjectByApiKey(batch.getApiKey());
+        }
+        if (projectOpt.isEmpty()) {
+            ingestMetrics.recordIngest(sample, null, "invalid_key");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("message", "Invalid API Key"));
+        }
+        Project project = projectOpt.get();
+        
+        // Shedding and quota apply per event, exactly as for single ingest
+        List<IngestRequest> accepted = new ArrayList<>(batch.getEvents().size());
+        List<Double> weights = new ArrayList<>(batch.getEvents().size());
+        int shed = 0;
+        int rateLimited = 0;
+        int duplicates = 0;
+        long retryAfter = 0;
+        for (IngestRequest request : batch.getEvents()) {
+            if (loadShedder.shouldShed(request)) {
+                shed++;
+                retryAfter = Math.max(retryAfter, loadShedder.getRetryAfterSeconds());
+                continue;
+            }
+            if (request.getEventId() != null && deduplicator.findDuplicate(project.getId(), request.getEventId()).isPresent()) {
+                duplicates++;
+                continue;
+            }
+            IngestRateLimiter.Decision quota = rateLimiter.acquire(project);
+            if (!quota.accepted()) {
+                rateLimited++;
+                retryAfter = Math.max(retryAfter, quota.retryAfterSeconds());
+                continue;
+            }
+            accepted.add(request);
+            weights.add(quota.sampleWeight());
+        }
+        
+        int stored = 0;
+        if (!accepted.isEmpty()) {
+            try {
+                stored = ingestService.ingestAll(project, accepted, weights);
+            } catch (IllegalStateException e) {
+                // Spool closed during shutdown
+            }
+            if (stored < accepted.size()) {
+                shed += accepted.size() - stored;
+                retryAfter = Math.max(retryAfter, loadShedder.getRetryAfterSeconds());
+            }
+        }
+        
+        Map<String, Object> result = Map.of("accepted", stored, "rateLimited", rateLimited, "shed", shed, "duplicates", duplicates);
+        if (stored == 0 && duplicates == 0) {
+            String outcome = rateLimited > 0 ? "rate_limited" : "shed";
+            ingestMetrics.recordIngest(sample, project.getId(), outcome, 0);
+            return ResponseEntity.status(rateLimited > 0 ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(result);
+        }
+        ingestMetrics.recordIngest(sample, project.getId(), "accepted", stored);
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(ingestService.isDeferred() ? HttpStatus.ACCEPTED : HttpStatus.OK);
+        if (retryAfter > 0) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        }
+        return response.body(result);
     }
 }
@@ -0,0 +1,10 @@
+package com.errortracker.dto;
+
+import java.util.List;
+
+public class BulkInviteRequest {
+    private List<String> emails;
+
+    public List<String> getEmails() { return emails; }
+    public void setEmails(List<String> emails) { this.emails = emails; }
+}
@@ -0,0 +1,23 @@
+package com.errortracker.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkInviteResponse {
+    private List<InvitationResponse> created = new ArrayList<>();
+    private List<InvitationResponse> resent = new ArrayList<>();
+    private List<String> existingUsers = new ArrayList<>();
+    private List<String> invalid = new ArrayList<>();
+
+    public List<InvitationResponse> getCreated() { return created; }
+    public void setCreated(List<InvitationResponse> created) { this.created = created; }
+    
+    public List<InvitationResponse> getResent() { return resent; }
+    public void setResent(List<InvitationResponse> resent) { this.resent = resent; }
+    
+    public List<String> getExistingUsers() { return existingUsers; }
+    public void setExistingUsers(List<String> existingUsers) { this.existingUsers = existingUsers; }
+    
+    public List<String> getInvalid() { return invalid; }
+    public void setInvalid(List<String> invalid) { this.invalid = invalid; }
+}
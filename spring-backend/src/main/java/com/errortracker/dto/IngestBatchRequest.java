@@ -0,0 +1,19 @@
+package com.errortracker.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+public class IngestBatchRequest {
+    // Optional when the key is sent in the X-Api-Key / Authorization: DSN header
+    private String apiKey;
+    
+    @NotEmpty(message = "At least one event is required")
+    private List<@Valid IngestRequest> events;
+
+    public String getApiKey() { return apiKey; }
+    public void setApiKey(String apiKey) { this.apiKey = apiKey; }
+    
+    public List<IngestRequest> getEvents() { return events; }
+    public void setEvents(List<IngestRequest> events) { this.events = events; }
+}
@@ -1,11 +1,13 @@
 package com.errortracker.dto;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 import java.util.Map;
 
 public class IngestRequest {
-    @NotBlank(message = "API key is required")
+    // Optional when the key is sent in the X-Api-Key / Authorization: DSN header
     private String apiKey;
     
     @NotBlank(message = "Type is required")
@@ -26,6 +28,14 @@ public class IngestRequest {
 
     private String traceId;
     private String userName;
+    
+    // Client-generated id; retries carrying the same id are stored once
+    @JsonAlias("event_id")
+    @Size(max = 64, message = "Event id must be at most 64 characters")
+    private String eventId;
+    
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
 
     public String getTraceId() { return traceId; }
     public void setTraceId(String traceId) { this.traceId = traceId; }
@@ -0,0 +1,13 @@
+package com.errortracker.dto;
+
+public interface ProjectMemberView {
+    Integer getId();
+    Integer getUserId();
+    Integer getProjectId();
+    String getRole();
+    String getUsername();
+    String getEmail();
+    String getFirstName();
+    String getLastName();
+    String getProfileImageUrl();
+}
@@ -0,0 +1,20 @@
+package com.errortracker.dto;
+
+public class ProjectQuotaRequest {
+    private Integer rateLimitPerSecond;
+    private Integer rateLimitBurst;
+    private Double overQuotaSampleRate;
+    private Integer maxPayloadBytes;
+
+    public Integer getRateLimitPerSecond() { return rateLimitPerSecond; }
+    public void setRateLimitPerSecond(Integer rateLimitPerSecond) { this.rateLimitPerSecond = rateLimitPerSecond; }
+    
+    public Integer getRateLimitBurst() { return rateLimitBurst; }
+    public void setRateLimitBurst(Integer rateLimitBurst) { this.rateLimitBurst = rateLimitBurst; }
+    
+    public Double getOverQuotaSampleRate() { return overQuotaSampleRate; }
+    public void setOverQuotaSampleRate(Double overQuotaSampleRate) { this.overQuotaSampleRate = overQuotaSampleRate; }
+    
+    public Integer getMaxPayloadBytes() { return maxPayloadBytes; }
+    public void setMaxPayloadBytes(Integer maxPayloadBytes) { this.maxPayloadBytes = maxPayloadBytes; }
+}
@@ -0,0 +1,7 @@
+package com.errortracker.dto;
+
+public interface ProjectSummary {
+    Integer getId();
+    String getName();
+    Integer getUserId();
+}
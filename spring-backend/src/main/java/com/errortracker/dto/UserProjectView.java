@@ -0,0 +1,9 @@
+package com.errortracker.dto;
+
+public interface UserProjectView {
+    Integer getId();
+    Integer getUserId();
+    Integer getProjectId();
+    String getRole();
+    String getProjectName();
+}
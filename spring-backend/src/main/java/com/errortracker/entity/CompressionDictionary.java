@@ -0,0 +1,65 @@
+package com.errortracker.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A trained zstd dictionary for stack traces. Scoped to one project, or to a platform
+ * (project_id null) for projects too small to train their own. Never updated or deleted:
+ * stored events reference the exact version they were compressed with.
+ */
+@Entity
+@Table(name = "compression_dictionaries", indexes = {
+    @Index(name = "idx_compression_dictionaries_scope", columnList = "project_id, platform, version")
+})
+public class CompressionDictionary {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    
+    @Column(name = "project_id")
+    private Integer projectId;
+    
+    private String platform;
+    
+    @Column(nullable = false)
+    private Integer version;
+    
+    @Column(nullable = false)
+    private byte[] dictionary;
+    
+    @Column(name = "sample_count")
+    private Integer sampleCount;
+    
+    // Held-out compressed size / raw size at training time
+    @Column(name = "compression_ratio")
+    private Double compressionRatio;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+    
+    public Integer getProjectId() { return projectId; }
+    public void setProjectId(Integer projectId) { this.projectId = projectId; }
+    
+    public String getPlatform() { return platform; }
+    public void setPlatform(String platform) { this.platform = platform; }
+    
+    public Integer getVersion() { return version; }
+    public void setVersion(Integer version) { this.version = version; }
+    
+    public byte[] getDictionary() { return dictionary; }
+    public void setDictionary(byte[] dictionary) { this.dictionary = dictionary; }
+    
+    public Integer getSampleCount() { return sampleCount; }
+    public void setSampleCount(Integer sampleCount) { this.sampleCount = sampleCount; }
+    
+    public Double getCompressionRatio() { return compressionRatio; }
+    public void setCompressionRatio(Double compressionRatio) { this.compressionRatio = compressionRatio; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -1,7 +1,9 @@
 package com.errortracker.entity;
 
+import com.errortracker.service.StackTraceCompressionListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
@@ -9,10 +11,18 @@ import java.time.LocalDateTime;
 import java.util.Map;
 
 @Entity
-@Table(name = "error_events")
+@Table(name = "error_events", indexes = {
+    // Idempotent ingest: an SDK retry with the same client id cannot create a second row
+    @Index(name = "uq_error_events_client_event", columnList = "project_id, client_event_id", unique = true),
+    @Index(name = "idx_error_events_payload_segment", columnList = "payload_segment_id")
+})
+@EntityListeners(StackTraceCompressionListener.class)
+// Status/severity edits must not write back payload columns PayloadTieringService has since cleared
+@DynamicUpdate
 public class ErrorEvent {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "error_events_seq")
+    @SequenceGenerator(name = "error_events_seq", sequenceName = "error_events_seq", allocationSize = 50)
     private Integer id;
     
     @Column(name = "project_id", nullable = false)
@@ -30,23 +40,64 @@ public class ErrorEvent {
     @Column(nullable = false)
     private String message;
     
+    // Whole trace for short or older rows; only the first line (kept for search) when compressed
+    @JsonIgnore
     @Column(name = "stack_trace", columnDefinition = "TEXT")
+    private String storedStackTrace;
+    
+    // zstd, with the project's or platform's trained dictionary when there is one
+    @JsonIgnore
+    @Column(name = "stack_trace_zstd")
+    private byte[] stackTraceCompressed;
+    
+    @JsonIgnore
+    @Column(name = "stack_trace_dictionary_id")
+    private Integer stackTraceDictionaryId;
+    
+    // Filled by StackTraceCompressionListener on load
+    @Transient
     private String stackTrace;
     
+    // Device/platform keys are interned in event_dimensions; the row keeps the foreign key
+    // plus whatever varies per event (battery, memory...). Rows from before interning hold
+    // the whole map here until EventDimensionBackfill splits them.
+    @JsonIgnore
+    @Column(name = "device_dimension_id")
+    private Long deviceDimensionId;
+    
+    @JsonIgnore
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "device_info", columnDefinition = "jsonb")
-    private Map<String, Object> deviceInfo;
+    private Map<String, Object> deviceExtras;
+    
+    @JsonIgnore
+    @Column(name = "platform_dimension_id")
+    private Long platformDimensionId;
     
+    @JsonIgnore
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "platform_info", columnDefinition = "jsonb")
+    private Map<String, Object> platformExtras;
+    
+    // Full maps as sent by the SDK, rebuilt by EventDimensionService.hydrate on reads
+    @Transient
+    private Map<String, Object> deviceInfo;
+    
+    @Transient
     private Map<String, Object> platformInfo;
     
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(columnDefinition = "jsonb")
     private Map<String, Object> tags;
     
+    // Only rows written before event_breadcrumbs still hold them here, until BreadcrumbBackfill moves them
+    @JsonIgnore
     @JdbcTypeCode(SqlTypes.JSON)
-    @Column(columnDefinition = "jsonb")
+    @Column(name = "breadcrumbs", columnDefinition = "jsonb")
+    private Object legacyBreadcrumbs;
+    
+    // Stored in event_breadcrumbs (or a payload segment); set on ingest and by ErrorEventService.loadDetails
+    @Transient
     private Object breadcrumbs;
     
     @Column(name = "occurred_at")
@@ -65,6 +116,32 @@ public class ErrorEvent {
     
     @Column(name = "user_name")
     private String userName;
+    
+    // Events kept by over-quota sampling stand in for 1/p events
+    @Column(name = "sample_weight")
+    private Double sampleWeight = 1.0;
+    
+    @Column(name = "client_event_id", length = 64)
+    private String clientEventId;
+    
+    // Set once PayloadTieringService has moved the stack trace, breadcrumbs and
+    // device/platform extras into a segment file; only the summary stays on the row
+    @JsonIgnore
+    @Column(name = "payload_segment_id")
+    private Integer payloadSegmentId;
+    
+    @JsonIgnore
+    @Column(name = "payload_offset")
+    private Long payloadOffset;
+    
+    @JsonIgnore
+    @Column(name = "payload_length")
+    private Integer payloadLength;
+    
+    // Kept by EventRetentionJob as an example of its fingerprint's day; already counted in event_daily_aggregates
+    @JsonIgnore
+    @Column(name = "retained_sample")
+    private Boolean retainedSample;
 
     public String getTraceId() { return traceId; }
     public void setTraceId(String traceId) { this.traceId = traceId; }
@@ -98,27 +175,69 @@ public class ErrorEvent {
     public String getMessage() { return message; }
     public void setMessage(String message) { this.message = message; }
     
-    public String getStackTrace() { return stackTrace; }
+    public String getStackTrace() { return stackTrace != null ? stackTrace : storedStackTrace; }
     public void setStackTrace(String stackTrace) { this.stackTrace = stackTrace; }
     
-    public Map<String, Object> getDeviceInfo() { return deviceInfo; }
+    public String getStoredStackTrace() { return storedStackTrace; }
+    public void setStoredStackTrace(String storedStackTrace) { this.storedStackTrace = storedStackTrace; }
+    
+    public byte[] getStackTraceCompressed() { return stackTraceCompressed; }
+    public void setStackTraceCompressed(byte[] stackTraceCompressed) { this.stackTraceCompressed = stackTraceCompressed; }
+    
+    public Integer getStackTraceDictionaryId() { return stackTraceDictionaryId; }
+    public void setStackTraceDictionaryId(Integer stackTraceDictionaryId) { this.stackTraceDictionaryId = stackTraceDictionaryId; }
+    
+    public Map<String, Object> getDeviceInfo() { return deviceInfo != null ? deviceInfo : deviceExtras; }
     public void setDeviceInfo(Map<String, Object> deviceInfo) { this.deviceInfo = deviceInfo; }
     
-    public Map<String, Object> getPlatformInfo() { return platformInfo; }
+    public Map<String, Object> getPlatformInfo() { return platformInfo != null ? platformInfo : platformExtras; }
     public void setPlatformInfo(Map<String, Object> platformInfo) { this.platformInfo = platformInfo; }
     
+    public Long getDeviceDimensionId() { return deviceDimensionId; }
+    public void setDeviceDimensionId(Long deviceDimensionId) { this.deviceDimensionId = deviceDimensionId; }
+    
+    public Map<String, Object> getDeviceExtras() { return deviceExtras; }
+    public void setDeviceExtras(Map<String, Object> deviceExtras) { this.deviceExtras = deviceExtras; }
+    
+    public Long getPlatformDimensionId() { return platformDimensionId; }
+    public void setPlatformDimensionId(Long platformDimensionId) { this.platformDimensionId = platformDimensionId; }
+    
+    public Map<String, Object> getPlatformExtras() { return platformExtras; }
+    public void setPlatformExtras(Map<String, Object> platformExtras) { this.platformExtras = platformExtras; }
+    
     public Map<String, Object> getTags() { return tags; }
     public void setTags(Map<String, Object> tags) { this.tags = tags; }
     
-    public Object getBreadcrumbs() { return breadcrumbs; }
+    public Object getBreadcrumbs() { return breadcrumbs != null ? breadcrumbs : legacyBreadcrumbs; }
     public void setBreadcrumbs(Object breadcrumbs) { this.breadcrumbs = breadcrumbs; }
     
+    public Object getLegacyBreadcrumbs() { return legacyBreadcrumbs; }
+    public void setLegacyBreadcrumbs(Object legacyBreadcrumbs) { this.legacyBreadcrumbs = legacyBreadcrumbs; }
+    
     public LocalDateTime getOccurredAt() { return occurredAt; }
     public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
     
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
+    public Double getSampleWeight() { return sampleWeight != null ? sampleWeight : 1.0; }
+    public void setSampleWeight(Double sampleWeight) { this.sampleWeight = sampleWeight; }
+    
+    public String getClientEventId() { return clientEventId; }
+    public void setClientEventId(String clientEventId) { this.clientEventId = clientEventId; }
+    
+    public Integer getPayloadSegmentId() { return payloadSegmentId; }
+    public void setPayloadSegmentId(Integer payloadSegmentId) { this.payloadSegmentId = payloadSegmentId; }
+    
+    public Long getPayloadOffset() { return payloadOffset; }
+    public void setPayloadOffset(Long payloadOffset) { this.payloadOffset = payloadOffset; }
+    
+    public Integer getPayloadLength() { return payloadLength; }
+    public void setPayloadLength(Integer payloadLength) { this.payloadLength = payloadLength; }
+    
+    public Boolean getRetainedSample() { return retainedSample; }
+    public void setRetainedSample(Boolean retainedSample) { this.retainedSample = retainedSample; }
+    
     public Project getProject() { return project; }
     public void setProject(Project project) { this.project = project; }
 }
@@ -0,0 +1,54 @@
+package com.errortracker.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Breadcrumbs of one event, kept out of error_events and encoded by BreadcrumbCodec, so
+ * list and detail reads never load or decode them unless asked to.
+ */
+@Entity
+@Table(name = "event_breadcrumbs")
+public class EventBreadcrumbs implements Persistable<Integer> {
+    @Id
+    @Column(name = "event_id")
+    private Integer eventId;
+    
+    // BreadcrumbCodec format version
+    @Column(nullable = false)
+    private Short encoding;
+    
+    @Column(name = "item_count")
+    private Integer itemCount;
+    
+    @Column(nullable = false)
+    private byte[] payload;
+    
+    // The id is the event's, so Spring Data can't tell new rows apart; skip its merge-select
+    @Transient
+    private boolean isNew = true;
+    
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+    
+    @Override
+    public Integer getId() { return eventId; }
+    
+    @Override
+    public boolean isNew() { return isNew; }
+    
+    public Integer getEventId() { return eventId; }
+    public void setEventId(Integer eventId) { this.eventId = eventId; }
+    
+    public Short getEncoding() { return encoding; }
+    public void setEncoding(Short encoding) { this.encoding = encoding; }
+    
+    public Integer getItemCount() { return itemCount; }
+    public void setItemCount(Integer itemCount) { this.itemCount = itemCount; }
+    
+    public byte[] getPayload() { return payload; }
+    public void setPayload(byte[] payload) { this.payload = payload; }
+}
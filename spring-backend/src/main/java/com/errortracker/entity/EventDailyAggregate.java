@@ -0,0 +1,103 @@
+package com.errortracker.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What EventRetentionJob keeps of one fingerprint's events on one day once the raw rows
+ * are deleted. Written by a single INSERT ... SELECT per project and day, never updated.
+ * The fingerprint is md5(type + newline + message).
+ */
+@Entity
+@Table(name = "event_daily_aggregates", indexes = {
+    @Index(name = "uq_event_daily_aggregates", columnList = "project_id, day, fingerprint", unique = true)
+})
+public class EventDailyAggregate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "project_id", nullable = false)
+    private Integer projectId;
+    
+    // Day of created_at, the same clock the dashboard counts use
+    @Column(nullable = false)
+    private LocalDate day;
+    
+    @Column(nullable = false, length = 32)
+    private String fingerprint;
+    
+    private String type;
+    
+    @Column(columnDefinition = "TEXT")
+    private String message;
+    
+    // Sum of sample_weight, like the raw counts
+    @Column(name = "event_count")
+    private Double eventCount;
+    
+    @Column(name = "distinct_users")
+    private Long distinctUsers;
+    
+    // The distinct user_name values themselves, so user counts over several days stay distinct
+    @JsonIgnore
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "user_names", columnDefinition = "jsonb")
+    private List<String> userNames;
+    
+    // severity -> weighted count
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "severity_counts", columnDefinition = "jsonb")
+    private Map<String, Double> severityCounts;
+    
+    // Raw events kept (retained_sample) so the day still has full examples
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "sample_event_ids", columnDefinition = "jsonb")
+    private List<Integer> sampleEventIds;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Integer getProjectId() { return projectId; }
+    public void setProjectId(Integer projectId) { this.projectId = projectId; }
+    
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+    
+    public String getFingerprint() { return fingerprint; }
+    public void setFingerprint(String fingerprint) { this.fingerprint = fingerprint; }
+    
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+    
+    public Double getEventCount() { return eventCount; }
+    public void setEventCount(Double eventCount) { this.eventCount = eventCount; }
+    
+    public Long getDistinctUsers() { return distinctUsers; }
+    public void setDistinctUsers(Long distinctUsers) { this.distinctUsers = distinctUsers; }
+    
+    public List<String> getUserNames() { return userNames; }
+    public void setUserNames(List<String> userNames) { this.userNames = userNames; }
+    
+    public Map<String, Double> getSeverityCounts() { return severityCounts; }
+    public void setSeverityCounts(Map<String, Double> severityCounts) { this.severityCounts = severityCounts; }
+    
+    public List<Integer> getSampleEventIds() { return sampleEventIds; }
+    public void setSampleEventIds(List<Integer> sampleEventIds) { this.sampleEventIds = sampleEventIds; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,53 @@
+package com.errortracker.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.Map;
+
+/**
+ * One distinct device or platform description seen by a project, interned at ingest so
+ * events store a foreign key instead of repeating the same jsonb on every row.
+ */
+@Entity
+@Table(name = "event_dimensions", indexes = {
+    @Index(name = "uq_event_dimensions_hash", columnList = "project_id, kind, hash", unique = true)
+})
+public class EventDimension {
+    public static final String DEVICE = "device";
+    public static final String PLATFORM = "platform";
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "project_id", nullable = false)
+    private Integer projectId;
+    
+    @Column(nullable = false, length = 16)
+    private String kind;
+    
+    // 64 bits of SHA-256 over the canonical (key-sorted) JSON of attributes
+    @Column(nullable = false)
+    private Long hash;
+    
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb", nullable = false)
+    private Map<String, Object> attributes;
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Integer getProjectId() { return projectId; }
+    public void setProjectId(Integer projectId) { this.projectId = projectId; }
+    
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+    
+    public Long getHash() { return hash; }
+    public void setHash(Long hash) { this.hash = hash; }
+    
+    public Map<String, Object> getAttributes() { return attributes; }
+    public void setAttributes(Map<String, Object> attributes) { this.attributes = attributes; }
+}
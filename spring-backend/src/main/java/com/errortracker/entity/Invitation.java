@@ -7,7 +7,8 @@ import java.time.LocalDateTime;
 @Table(name = "invitations")
 public class Invitation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invitations_seq")
+    @SequenceGenerator(name = "invitations_seq", sequenceName = "invitations_seq", allocationSize = 50)
     private Integer id;
     
     @Column(nullable = false)
@@ -0,0 +1,33 @@
+package com.errortracker.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far a background job has scanned error_events by id, so a restart resumes there
+ * instead of rescanning rows it already skipped. Updated in the same transaction as the
+ * chunk it covers.
+ */
+@Entity
+@Table(name = "job_watermarks")
+public class JobWatermark {
+    @Id
+    @Column(length = 64)
+    private String name;
+    
+    @Column(name = "last_id", nullable = false)
+    private Integer lastId = 0;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public Integer getLastId() { return lastId; }
+    public void setLastId(Integer lastId) { this.lastId = lastId; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,39 @@
+package com.errortracker.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * An immutable file of tiered event payloads (see PayloadSegmentStore). The row is created
+ * before the file is written so its id names the file; event_count and size_bytes are set
+ * in the same transaction that points the events at it.
+ */
+@Entity
+@Table(name = "payload_segments")
+public class PayloadSegment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    
+    @Column(name = "event_count")
+    private Integer eventCount;
+    
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+    
+    public Integer getEventCount() { return eventCount; }
+    public void setEventCount(Integer eventCount) { this.eventCount = eventCount; }
+    
+    public Long getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(Long sizeBytes) { this.sizeBytes = sizeBytes; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
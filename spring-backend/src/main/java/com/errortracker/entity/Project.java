@@ -29,6 +29,20 @@ public class Project {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    // Ingest quota; null falls back to the app.ingest.rate-limit.* defaults
+    @Column(name = "rate_limit_per_second")
+    private Integer rateLimitPerSecond;
+    
+    @Column(name = "rate_limit_burst")
+    private Integer rateLimitBurst;
+    
+    @Column(name = "over_quota_sample_rate")
+    private Double overQuotaSampleRate;
+    
+    // Max inflated ingest body size; null falls back to app.ingest.max-payload-bytes
+    @Column(name = "max_payload_bytes")
+    private Integer maxPayloadBytes;
+    
     @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", insertable = false, updatable = false)
@@ -79,6 +93,18 @@ public class Project {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
+    public Integer getRateLimitPerSecond() { return rateLimitPerSecond; }
+    public void setRateLimitPerSecond(Integer rateLimitPerSecond) { this.rateLimitPerSecond = rateLimitPerSecond; }
+    
+    public Integer getRateLimitBurst() { return rateLimitBurst; }
+    public void setRateLimitBurst(Integer rateLimitBurst) { this.rateLimitBurst = rateLimitBurst; }
+    
+    public Double getOverQuotaSampleRate() { return overQuotaSampleRate; }
+    public void setOverQuotaSampleRate(Double overQuotaSampleRate) { this.overQuotaSampleRate = overQuotaSampleRate; }
+    
+    public Integer getMaxPayloadBytes() { return maxPayloadBytes; }
+    public void setMaxPayloadBytes(Integer maxPayloadBytes) { this.maxPayloadBytes = maxPayloadBytes; }
+    
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
     
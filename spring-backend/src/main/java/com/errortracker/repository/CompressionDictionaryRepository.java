@@ -0,0 +1,14 @@
+package com.errortracker.repository;
+
+import com.errortracker.entity.CompressionDictionary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CompressionDictionaryRepository extends JpaRepository<CompressionDictionary, Integer> {
+    Optional<CompressionDictionary> findTopByProjectIdOrderByVersionDesc(Integer projectId);
+    
+    Optional<CompressionDictionary> findTopByProjectIdIsNullAndPlatformOrderByVersionDesc(String platform);
+}
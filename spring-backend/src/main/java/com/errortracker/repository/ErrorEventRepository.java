@@ -8,6 +8,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ErrorEventRepository extends JpaRepository<ErrorEvent, Integer> {
@@ -15,12 +16,47 @@ public interface ErrorEventRepository extends JpaRepository<ErrorEvent, Integer>
     
     long countByProjectId(Integer projectId);
     
+    // Breakdowns group by the interned dimension keys only; no jsonb is read from error_events
+    @Query("SELECT e.deviceDimensionId, COALESCE(SUM(COALESCE(e.sampleWeight, 1.0)), 0) FROM ErrorEvent e " +
+           "WHERE e.projectId = :projectId AND e.createdAt > :since GROUP BY e.deviceDimensionId")
+    List<Object[]> sumSampleWeightByDeviceDimension(@Param("projectId") Integer projectId, @Param("since") LocalDateTime since);
+    
+    @Query("SELECT e.platformDimensionId, COALESCE(SUM(COALESCE(e.sampleWeight, 1.0)), 0) FROM ErrorEvent e " +
+           "WHERE e.projectId = :projectId AND e.createdAt > :since GROUP BY e.platformDimensionId")
+    List<Object[]> sumSampleWeightByPlatformDimension(@Param("projectId") Integer projectId, @Param("since") LocalDateTime since);
+    
+    @Query(value = "SELECT * FROM error_events WHERE breadcrumbs IS NOT NULL ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<ErrorEvent> findWithLegacyBreadcrumbs(@Param("limit") int limit);
+    
+    // Rows written before dimension interning, oldest first
+    @Query(value = "SELECT * FROM error_events WHERE device_dimension_id IS NULL AND platform_dimension_id IS NULL " +
+           "AND (device_info IS NOT NULL OR platform_info IS NOT NULL) AND id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<ErrorEvent> findUninternedAfter(@Param("afterId") Integer afterId, @Param("limit") int limit);
+    
+    @Query("SELECT e.id FROM ErrorEvent e WHERE e.projectId = :projectId AND e.clientEventId = :clientEventId")
+    Optional<Integer> findIdByProjectIdAndClientEventId(@Param("projectId") Integer projectId, @Param("clientEventId") String clientEventId);
+    
+    Optional<ErrorEvent> findByProjectIdAndClientEventId(Integer projectId, String clientEventId);
+    
     @Query("SELECT COUNT(DISTINCT e.userName) FROM ErrorEvent e WHERE e.projectId = :projectId AND e.userName IS NOT NULL")
     long countDistinctUsersByProjectId(@Param("projectId") Integer projectId);
     
     long countByProjectIdAndCreatedAtAfter(Integer projectId, LocalDateTime since);
     
-    @Query("SELECT COUNT(DISTINCT e.userName) FROM ErrorEvent e WHERE e.projectId = :projectId AND e.createdAt > :since AND e.userName IS NOT NULL")
+    // Sampled events count for their weight; rows from before sampling have none.
+    // Days with aggregates are left out, retention samples and rows not yet deleted alike:
+    // event_daily_aggregates already counts them.
+    @Query(value = "SELECT COALESCE(SUM(COALESCE(e.sample_weight, 1.0)), 0) FROM error_events e " +
+           "WHERE e.project_id = :projectId AND e.created_at > :since AND NOT EXISTS (" +
+           "SELECT 1 FROM event_daily_aggregates a WHERE a.project_id = e.project_id AND a.day = CAST(e.created_at AS date))",
+           nativeQuery = true)
+    double sumSampleWeightByProjectIdAndCreatedAtAfter(@Param("projectId") Integer projectId, @Param("since") LocalDateTime since);
+    
+    // Raw rows plus the user names kept by downsampled days; the union drops users seen in both
+    @Query(value = "SELECT COUNT(*) FROM (" +
+           "SELECT user_name FROM error_events WHERE project_id = :projectId AND created_at > :since AND user_name IS NOT NULL " +
+           "UNION SELECT jsonb_array_elements_text(user_names) FROM event_daily_aggregates " +
+           "WHERE project_id = :projectId AND day >= CAST(:since AS date)) u", nativeQuery = true)
     long countDistinctUsersByProjectIdAndCreatedAtAfter(@Param("projectId") Integer projectId, @Param("since") LocalDateTime since);
     
     @Query(value = "SELECT * FROM error_events WHERE project_id = :projectId " +
@@ -28,7 +64,9 @@ public interface ErrorEventRepository extends JpaRepository<ErrorEvent, Integer>
            "AND (:severity IS NULL OR severity = :severity) " +
            "AND (:type IS NULL OR type = :type) " +
            "AND (:search IS NULL OR LOWER(CAST(message AS TEXT)) LIKE LOWER('%' || :search || '%') " +
-           "OR LOWER(CAST(stack_trace AS TEXT)) LIKE LOWER('%' || :search || '%') " +
+           // Only the exception line: frames of compressed or tiered traces aren't in Postgres as text,
+           // so search matches the same part of every trace whatever its size or age
+           "OR LOWER(SPLIT_PART(CAST(stack_trace AS TEXT), CHR(10), 1)) LIKE LOWER('%' || :search || '%') " +
            "OR LOWER(CAST(user_name AS TEXT)) LIKE LOWER('%' || :search || '%') " +
            "OR LOWER(CAST(trace_id AS TEXT)) LIKE LOWER('%' || :search || '%')) " +
            "ORDER BY created_at DESC", nativeQuery = true)
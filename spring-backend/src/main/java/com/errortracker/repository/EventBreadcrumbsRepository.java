@@ -0,0 +1,17 @@
+package com.errortracker.repository;
+
+import com.errortracker.entity.EventBreadcrumbs;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface EventBreadcrumbsRepository extends JpaRepository<EventBreadcrumbs, Integer> {
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM event_breadcrumbs WHERE event_id IN (SELECT id FROM error_events WHERE project_id = :projectId)", nativeQuery = true)
+    int deleteByProjectId(@Param("projectId") Integer projectId);
+}
@@ -0,0 +1,25 @@
+package com.errortracker.repository;
+
+import com.errortracker.entity.EventDailyAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface EventDailyAggregateRepository extends JpaRepository<EventDailyAggregate, Long> {
+    List<EventDailyAggregate> findByProjectIdAndDayGreaterThanEqualOrderByDayAscEventCountDesc(Integer projectId, LocalDate since);
+    
+    @Query("SELECT COALESCE(SUM(a.eventCount), 0) FROM EventDailyAggregate a WHERE a.projectId = :projectId AND a.day >= :since")
+    double sumEventCountByProjectIdAndDayFrom(@Param("projectId") Integer projectId, @Param("since") LocalDate since);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EventDailyAggregate a WHERE a.projectId = :projectId")
+    int deleteByProjectId(@Param("projectId") Integer projectId);
+}
@@ -0,0 +1,21 @@
+package com.errortracker.repository;
+
+import com.errortracker.entity.EventDimension;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface EventDimensionRepository extends JpaRepository<EventDimension, Long> {
+    Optional<EventDimension> findByProjectIdAndKindAndHash(Integer projectId, String kind, Long hash);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EventDimension d WHERE d.projectId = :projectId")
+    int deleteByProjectId(@Param("projectId") Integer projectId);
+}
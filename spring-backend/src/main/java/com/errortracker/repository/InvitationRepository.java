@@ -2,8 +2,11 @@ package com.errortracker.repository;
 
 import com.errortracker.entity.Invitation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +17,8 @@ public interface InvitationRepository extends JpaRepository<Invitation, Integer>
     List<Invitation> findByInvitedBy(Integer invitedBy);
     List<Invitation> findByStatus(String status);
     boolean existsByEmailAndStatus(String email, String status);
+    
+    // Emails must be lowercased; served by idx_invitations_lower_email
+    @Query("SELECT i FROM Invitation i WHERE LOWER(i.email) IN :emails AND i.status = :status")
+    List<Invitation> findByLowerEmailInAndStatus(@Param("emails") Collection<String> emails, @Param("status") String status);
 }
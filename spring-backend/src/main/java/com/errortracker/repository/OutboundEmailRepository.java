@@ -0,0 +1,21 @@
+package com.errortracker.repository;
+
+import com.errortracker.entity.OutboundEmail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboundEmailRepository extends JpaRepository<OutboundEmail, Integer> {
+    // SKIP LOCKED lets several backend instances drain the outbox without sending twice;
+    // SENDING rows are due again once their lease (next_attempt_at) has run out
+    @Query(value = "SELECT * FROM email_outbox WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now " +
+           "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboundEmail> lockDueBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    long countByStatus(String status);
+}
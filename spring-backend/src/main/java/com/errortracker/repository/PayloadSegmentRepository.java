@@ -0,0 +1,19 @@
+package com.errortracker.repository;
+
+import com.errortracker.entity.PayloadSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PayloadSegmentRepository extends JpaRepository<PayloadSegment, Integer> {
+    // Segments whose events have all been deleted, plus ones a crashed run never completed
+    @Query(value = "SELECT s.id FROM payload_segments s WHERE (s.event_count IS NOT NULL " +
+           "AND NOT EXISTS (SELECT 1 FROM error_events e WHERE e.payload_segment_id = s.id)) " +
+           "OR (s.event_count IS NULL AND s.created_at < :abandonedBefore)", nativeQuery = true)
+    List<Integer> findDroppableIds(@Param("abandonedBefore") LocalDateTime abandonedBefore);
+}
@@ -1,5 +1,6 @@
 package com.errortracker.repository;
 
+import com.errortracker.dto.ProjectSummary;
 import com.errortracker.entity.Project;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -11,4 +12,5 @@ import java.util.Optional;
 public interface ProjectRepository extends JpaRepository<Project, Integer> {
     List<Project> findByUserId(Integer userId);
     Optional<Project> findByApiKey(String apiKey);
+    Optional<ProjectSummary> findSummaryById(Integer id);
 }
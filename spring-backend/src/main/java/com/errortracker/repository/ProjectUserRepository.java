@@ -1,7 +1,11 @@
 package com.errortracker.repository;
 
+import com.errortracker.dto.ProjectMemberView;
+import com.errortracker.dto.UserProjectView;
 import com.errortracker.entity.ProjectUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +19,16 @@ public interface ProjectUserRepository extends JpaRepository<ProjectUser, Intege
     boolean existsByProjectIdAndUserId(Integer projectId, Integer userId);
     void deleteByProjectIdAndUserId(Integer projectId, Integer userId);
     long countByProjectId(Integer projectId);
+    
+    // Single join per view instead of one user/project lookup per membership
+    @Query("SELECT pu.id AS id, pu.userId AS userId, pu.projectId AS projectId, pu.role AS role, " +
+           "u.username AS username, u.email AS email, u.firstName AS firstName, u.lastName AS lastName, " +
+           "u.profileImageUrl AS profileImageUrl " +
+           "FROM ProjectUser pu LEFT JOIN pu.user u WHERE pu.projectId = :projectId ORDER BY pu.id")
+    List<ProjectMemberView> findMembersByProjectId(@Param("projectId") Integer projectId);
+    
+    @Query("SELECT pu.id AS id, pu.userId AS userId, pu.projectId AS projectId, pu.role AS role, " +
+           "p.name AS projectName " +
+           "FROM ProjectUser pu LEFT JOIN pu.project p WHERE pu.userId = :userId ORDER BY pu.id")
+    List<UserProjectView> findProjectViewsByUserId(@Param("userId") Integer userId);
 }
@@ -1,9 +1,14 @@
 package com.errortracker.repository;
 
 import com.errortracker.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +19,19 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
     List<User> findByRole(String role);
+    
+    // Emails must be lowercased; served by idx_users_email_prefix (text_pattern_ops also covers =)
+    @Query("SELECT u.email FROM User u WHERE LOWER(u.email) IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+    
+    Slice<User> findAllBy(Pageable pageable);
+    
+    // Matches the lower(...) text_pattern_ops indexes created in schema.sql
+    @Query("SELECT u FROM User u WHERE LOWER(u.username) LIKE :prefix ESCAPE '\\' " +
+           "OR LOWER(u.email) LIKE :prefix ESCAPE '\\'")
+    Slice<User> searchByPrefix(@Param("prefix") String prefix, Pageable pageable);
+    
+    @Query(value = "SELECT CAST(GREATEST(reltuples, 0) AS BIGINT) FROM pg_class WHERE oid = 'users'::regclass",
+           nativeQuery = true)
+    long estimateCount();
 }
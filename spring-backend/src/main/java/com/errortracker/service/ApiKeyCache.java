@@ -0,0 +1,90 @@
+package com.errortracker.service;
+
+import com.errortracker.entity.Project;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Project lookups by API key for ingest. Entries expire after ttl-seconds, so a project
+ * deleted, re-keyed or given new quota/payload limits on another instance is seen here
+ * within that time; invalidateProject only clears this instance.
+ */
+@Component
+public class ApiKeyCache {
+    private static final int MAX_INVALID_KEYS = 10_000;
+    private static final long INVALID_KEY_TTL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    
+    private final Map<String, Entry> projectsByKey = new ConcurrentHashMap<>();
+    // Recently rejected keys -> expiry, so a client retrying a bad key doesn't hit the DB each time
+    private final Map<String, Long> invalidKeys = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidHits;
+    private final long ttlNanos;
+    private final int maxEntries;
+    
+    public ApiKeyCache(MeterRegistry meterRegistry,
+                       @Value("${app.ingest.api-key-cache.ttl-seconds:60}") long ttlSeconds,
+                       @Value("${app.ingest.api-key-cache.max-entries:10000}") int maxEntries) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("apikey.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("apikey.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.invalidHits = Counter.builder("apikey.cache.requests").tag("result", "invalid").register(meterRegistry);
+        Gauge.builder("apikey.cache.size", projectsByKey, Map::size).register(meterRegistry);
+    }
+    
+    public Optional<Project> get(String apiKey, Function<String, Optional<Project>> loader) {
+        Entry cached = projectsByKey.get(apiKey);
+        if (cached != null && cached.expiresAt() - System.nanoTime() > 0) {
+            hits.increment();
+            return Optional.of(cached.project());
+        }
+        Long invalidUntil = invalidKeys.get(apiKey);
+        if (invalidUntil != null && invalidUntil - System.nanoTime() > 0) {
+            invalidHits.increment();
+            return Optional.empty();
+        }
+        misses.increment();
+        Optional<Project> loaded = loader.apply(apiKey);
+        if (loaded.isPresent()) {
+            if (projectsByKey.size() >= maxEntries) {
+                evictExpired();
+            }
+            // Still full: start over rather than track recency on every hit
+            if (projectsByKey.size() >= maxEntries) {
+                projectsByKey.clear();
+            }
+            projectsByKey.put(apiKey, new Entry(loaded.get(), System.nanoTime() + ttlNanos));
+        } else {
+            projectsByKey.remove(apiKey);
+            // Bounded so a flood of random keys cannot grow the map; new project keys are
+            // random 256-bit values, so a short-lived negative entry never hides a real one
+            if (invalidKeys.size() >= MAX_INVALID_KEYS) {
+                invalidKeys.clear();
+            }
+            invalidKeys.put(apiKey, System.nanoTime() + INVALID_KEY_TTL_NANOS);
+        }
+        return loaded;
+    }
+    
+    public void invalidateProject(Integer projectId) {
+        projectsByKey.values().removeIf(entry -> entry.project().getId().equals(projectId));
+    }
+    
+    private void evictExpired() {
+        long now = System.nanoTime();
+        projectsByKey.values().removeIf(entry -> entry.expiresAt() - now <= 0);
+    }
+    
+    private record Entry(Project project, long expiresAt) {}
+}
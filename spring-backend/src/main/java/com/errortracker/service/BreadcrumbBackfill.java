@@ -0,0 +1,61 @@
+package com.errortracker.service;
+
+import com.errortracker.config.SchedulingConfig;
+import com.errortracker.entity.ErrorEvent;
+import com.errortracker.entity.EventBreadcrumbs;
+import com.errortracker.repository.ErrorEventRepository;
+import com.errortracker.repository.EventBreadcrumbsRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves breadcrumbs of rows written before event_breadcrumbs out of the jsonb column,
+ * one short transaction per chunk, so old rows shrink as well.
+ */
+@Component
+public class BreadcrumbBackfill {
+    private final ErrorEventRepository errorEventRepository;
+    private final EventBreadcrumbsRepository breadcrumbsRepository;
+    private final BreadcrumbCodec breadcrumbCodec;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    
+    public BreadcrumbBackfill(ErrorEventRepository errorEventRepository, EventBreadcrumbsRepository breadcrumbsRepository,
+                              BreadcrumbCodec breadcrumbCodec, TransactionTemplate transactionTemplate,
+                              @Value("${app.breadcrumbs.backfill.enabled:true}") boolean enabled,
+                              @Value("${app.breadcrumbs.backfill.batch-size:500}") int batchSize) {
+        this.errorEventRepository = errorEventRepository;
+        this.breadcrumbsRepository = breadcrumbsRepository;
+        this.breadcrumbCodec = breadcrumbCodec;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.breadcrumbs.backfill.interval-ms:60000}", scheduler = SchedulingConfig.BATCH_SCHEDULER)
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+        Integer moved;
+        do {
+            moved = transactionTemplate.execute(status -> {
+                List<ErrorEvent> events = errorEventRepository.findWithLegacyBreadcrumbs(batchSize);
+                List<EventBreadcrumbs> rows = new ArrayList<>(events.size());
+                for (ErrorEvent event : events) {
+                    rows.add(breadcrumbCodec.encode(event.getId(), event.getLegacyBreadcrumbs()));
+                    // Managed entity: the column is cleared on commit
+                    event.setLegacyBreadcrumbs(null);
+                }
+                breadcrumbsRepository.saveAll(rows);
+                return events.size();
+            });
+        } while (moved != null && moved >= batchSize);
+    }
+}
@@ -0,0 +1,51 @@
+package com.errortracker.service;
+
+import com.errortracker.entity.EventBreadcrumbs;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.github.luben.zstd.Zstd;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Stored breadcrumb format: Smile with shared key/value back-references (categories and
+ * levels repeat on every crumb), then zstd. Typically a fraction of the jsonb size.
+ */
+@Component
+public class BreadcrumbCodec {
+    static final short SMILE_ZSTD = 1;
+    private static final int ZSTD_LEVEL = 3;
+    
+    private final ObjectMapper smile = new ObjectMapper(SmileFactory.builder()
+        .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+        .build());
+    
+    public EventBreadcrumbs encode(Integer eventId, Object breadcrumbs) {
+        try {
+            EventBreadcrumbs row = new EventBreadcrumbs();
+            row.setEventId(eventId);
+            row.setEncoding(SMILE_ZSTD);
+            row.setItemCount(breadcrumbs instanceof Collection<?> items ? items.size() : null);
+            row.setPayload(Zstd.compress(smile.writeValueAsBytes(breadcrumbs), ZSTD_LEVEL));
+            return row;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not encode breadcrumbs", e);
+        }
+    }
+    
+    public Object decode(EventBreadcrumbs row) {
+        if (row.getEncoding() != SMILE_ZSTD) {
+            throw new IllegalStateException("Unknown breadcrumb encoding " + row.getEncoding());
+        }
+        byte[] payload = row.getPayload();
+        try {
+            byte[] smileBytes = Zstd.decompress(payload, (int) Zstd.getFrameContentSize(payload));
+            return smile.readValue(smileBytes, Object.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt breadcrumbs for event " + row.getEventId(), e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.errortracker.service;
+
+import com.errortracker.entity.OutboundEmail;
+import com.errortracker.repository.OutboundEmailRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class EmailOutboxDispatcher {
+    
+    @Autowired(required = false)
+    private JavaMailSender mailSender;
+    
+    @Autowired
+    private OutboundEmailRepository outboundEmailRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.feature.email-enabled:false}")
+    private boolean emailEnabled;
+    
+    @Value("${app.email.from:noreply@techmonitor.app}")
+    private String fromEmail;
+    
+    @Value("${app.email.outbox.batch-size:50}")
+    private int batchSize;
+    
+    @Value("${app.email.outbox.max-attempts:8}")
+    private int maxAttempts;
+    
+    @Value("${app.email.outbox.initial-backoff-seconds:30}")
+    private long initialBackoffSeconds;
+    
+    @Value("${app.email.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+    
+    @Value("${app.email.outbox.lease-seconds:600}")
+    private long leaseSeconds;
+    
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("email.outbox.pending", outboundEmailRepository, repository -> repository.countByStatus("PENDING"))
+            .description("Emails waiting in the outbox")
+            .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        if (!emailEnabled || mailSender == null) {
+            return;
+        }
+        // Keep draining while full batches come back so a backlog clears within one tick
+        List<OutboundEmail> batch;
+        do {
+            batch = claimBatch();
+            if (!batch.isEmpty()) {
+                sendBatch(batch);
+            }
+        } while (batch.size() >= batchSize);
+    }
+    
+    /**
+     * Claims due rows by moving them to SENDING with a lease, in a transaction that commits
+     * before any SMTP traffic, so no connection or row lock is held while sending. A lease
+     * that runs out means the sender died mid-batch; the rows are claimed again (at least once).
+     */
+    private List<OutboundEmail> claimBatch() {
+        List<OutboundEmail> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboundEmail> due = outboundEmailRepository.lockDueBatch(now, batchSize);
+            for (OutboundEmail email : due) {
+                email.setStatus("SENDING");
+                email.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+            }
+            outboundEmailRepository.saveAll(due);
+            return due;
+        });
+        return batch != null ? batch : List.of();
+    }
+    
+    private void sendBatch(List<OutboundEmail> batch) {
+        // In claim order; MimeMessage keeps identity equality
+        Map<MimeMessage, OutboundEmail> messages = new LinkedHashMap<>();
+        for (OutboundEmail email : batch) {
+            try {
+                messages.put(buildMessage(email), email);
+            } catch (MessagingException e) {
+                markFailed(email, e, false);
+            }
+        }
+        
+        // JavaMailSender opens one SMTP connection for the whole array
+        Map<Object, Exception> failures = Map.of();
+        try {
+            mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                failures = failAll(messages, e);
+            }
+        } catch (MailException e) {
+            failures = failAll(messages, e);
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<MimeMessage, OutboundEmail> entry : messages.entrySet()) {
+            OutboundEmail email = entry.getValue();
+            Exception failure = failures.get(entry.getKey());
+            if (failure == null) {
+                email.setStatus("SENT");
+                email.setSentAt(now);
+                email.setAttempts(email.getAttempts() + 1);
+                email.setLastError(null);
+            } else {
+                markFailed(email, failure, true);
+            }
+        }
+        
+        transactionTemplate.executeWithoutResult(status -> outboundEmailRepository.saveAll(batch));
+        System.out.println("[EMAIL] Outbox dispatched " + (messages.size() - failures.size()) + "/" + batch.size() + " messages");
+    }
+    
+    private MimeMessage buildMessage(OutboundEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody());
+        return message;
+    }
+    
+    private Map<Object, Exception> failAll(Map<MimeMessage, OutboundEmail> messages, Exception e) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        for (MimeMessage message : messages.keySet()) {
+            failures.put(message, e);
+        }
+        return failures;
+    }
+    
+    private void markFailed(OutboundEmail email, Exception e, boolean retryable) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setLastError(e.getMessage());
+        
+        if (!retryable || attempts >= maxAttempts) {
+            email.setStatus("FAILED");
+            System.err.println("[EMAIL] Giving up on email " + email.getId() + " to " + email.getRecipient() + ": " + e.getMessage());
+            return;
+        }
+        
+        long backoff = Math.min(maxBackoffSeconds, initialBackoffSeconds << Math.min(attempts - 1, 20));
+        email.setStatus("PENDING");
+        email.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+        System.err.println("[EMAIL] Failed to send email " + email.getId() + " to " + email.getRecipient() + ", retrying in " + backoff + "s: " + e.getMessage());
+    }
+}
@@ -1,11 +1,16 @@
 package com.errortracker.service;
 
+import com.errortracker.entity.Invitation;
+import com.errortracker.entity.OutboundEmail;
+import com.errortracker.repository.OutboundEmailRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 public class EmailService {
     
@@ -15,12 +20,12 @@ public class EmailService {
     @Value("${app.feature.email-enabled:false}")
     private boolean emailEnabled;
     
-    @Value("${app.email.from:noreply@techmonitor.app}")
-    private String fromEmail;
-    
     @Value("${app.email.base-url:http://localhost:5000}")
     private String baseUrl;
     
+    @Autowired
+    private OutboundEmailRepository outboundEmailRepository;
+    
     public boolean isEmailEnabled() {
         return emailEnabled && mailSender != null;
     }
@@ -31,18 +36,9 @@ public class EmailService {
             return;
         }
 
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(toEmail);
-        message.setSubject("Welcome to Logra!");
-        message.setText("Hello " + username + ",\n\nYour account has been successfully created. You can now start monitoring your applications.\n\nBest regards,\nThe Logra Team");
-
-        try {
-            mailSender.send(message);
-            System.out.println("[EMAIL] Welcome email sent to: " + toEmail);
-        } catch (Exception e) {
-            System.err.println("[EMAIL] Failed to send welcome email to " + toEmail + ": " + e.getMessage());
-        }
+        enqueue(toEmail, "Welcome to Logra!",
+            "Hello " + username + ",\n\nYour account has been successfully created. You can now start monitoring your applications.\n\nBest regards,\nThe Logra Team");
+        System.out.println("[EMAIL] Welcome email queued for: " + toEmail);
     }
 
     public void sendInvitationEmail(String toEmail, String inviteToken, String invitedByUsername) {
@@ -56,18 +52,26 @@ public class EmailService {
             return;
         }
         
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(toEmail);
-        message.setSubject("Logra - Invitation");
-        message.setText(buildInvitationEmailBody(inviteToken, invitedByUsername));
+        enqueue(toEmail, "Logra - Invitation", buildInvitationEmailBody(inviteToken, invitedByUsername));
+        System.out.println("[EMAIL] Invitation queued for: " + toEmail);
+    }
+    
+    public void sendInvitationEmails(List<Invitation> invitations, String invitedByUsername) {
+        if (invitations.isEmpty()) {
+            return;
+        }
+        if (!isEmailEnabled()) {
+            System.out.println("[EMAIL] Email disabled, would send " + invitations.size() + " invitations");
+            return;
+        }
         
-        try {
-            mailSender.send(message);
-            System.out.println("[EMAIL] Invitation sent successfully to: " + toEmail);
-        } catch (Exception e) {
-            System.err.println("[EMAIL] Failed to send invitation to " + toEmail + ": " + e.getMessage());
+        List<OutboundEmail> emails = new ArrayList<>();
+        for (Invitation invitation : invitations) {
+            emails.add(buildOutboundEmail(invitation.getEmail(), "Logra - Invitation",
+                buildInvitationEmailBody(invitation.getToken(), invitedByUsername)));
         }
+        outboundEmailRepository.saveAll(emails);
+        System.out.println("[EMAIL] " + emails.size() + " invitations queued");
     }
     
     public void sendPasswordResetEmail(String toEmail, String resetToken) {
@@ -77,19 +81,21 @@ public class EmailService {
             return;
         }
         
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(toEmail);
-        message.setSubject("Reset your Logra password");
-        message.setText(buildPasswordResetEmailBody(resetToken));
-        
-        try {
-            mailSender.send(message);
-            System.out.println("Password reset email sent to: " + toEmail);
-        } catch (Exception e) {
-            System.err.println("Failed to send password reset email to " + toEmail + ": " + e.getMessage());
-            throw new RuntimeException("Failed to send password reset email", e);
-        }
+        enqueue(toEmail, "Reset your Logra password", buildPasswordResetEmailBody(resetToken));
+        System.out.println("Password reset email queued for: " + toEmail);
+    }
+    
+    // Requests only write to the outbox; EmailOutboxDispatcher does the SMTP work
+    private void enqueue(String toEmail, String subject, String body) {
+        outboundEmailRepository.save(buildOutboundEmail(toEmail, subject, body));
+    }
+    
+    private OutboundEmail buildOutboundEmail(String toEmail, String subject, String body) {
+        OutboundEmail email = new OutboundEmail();
+        email.setRecipient(toEmail);
+        email.setSubject(subject);
+        email.setBody(body);
+        return email;
     }
     
     private String buildInvitationEmailBody(String inviteToken, String invitedByUsername) {
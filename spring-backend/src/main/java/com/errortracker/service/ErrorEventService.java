@@ -3,30 +3,152 @@ package com.errortracker.service;
 import com.errortracker.dto.IngestRequest;
 import com.errortracker.dto.UpdateEventRequest;
 import com.errortracker.entity.ErrorEvent;
+import com.errortracker.entity.EventBreadcrumbs;
 import com.errortracker.repository.ErrorEventRepository;
+import com.errortracker.repository.EventBreadcrumbsRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class ErrorEventService {
     private final ErrorEventRepository errorEventRepository;
+    private final EventDimensionService dimensionService;
+    private final EventBreadcrumbsRepository breadcrumbsRepository;
+    private final BreadcrumbCodec breadcrumbCodec;
+    private final TransactionTemplate transactionTemplate;
+    private final PayloadTieringService payloadTiering;
     
-    public ErrorEventService(ErrorEventRepository errorEventRepository) {
+    public ErrorEventService(ErrorEventRepository errorEventRepository, EventDimensionService dimensionService,
+                             EventBreadcrumbsRepository breadcrumbsRepository, BreadcrumbCodec breadcrumbCodec,
+                             TransactionTemplate transactionTemplate, PayloadTieringService payloadTiering) {
         this.errorEventRepository = errorEventRepository;
+        this.dimensionService = dimensionService;
+        this.breadcrumbsRepository = breadcrumbsRepository;
+        this.breadcrumbCodec = breadcrumbCodec;
+        this.transactionTemplate = transactionTemplate;
+        this.payloadTiering = payloadTiering;
     }
     
+    @Transactional(readOnly = true)
     public List<ErrorEvent> getProjectEvents(Integer projectId, String status, String severity, String type, String search) {
-        return errorEventRepository.findByProjectIdWithFilters(projectId, status, severity, type, search);
+        return dimensionService.hydrateAll(errorEventRepository.findByProjectIdWithFilters(projectId, status, severity, type, search));
     }
 
     
+    public Optional<ErrorEvent> getEventByClientId(Integer projectId, String clientEventId) {
+        return errorEventRepository.findByProjectIdAndClientEventId(projectId, clientEventId).map(dimensionService::hydrate);
+    }
+    
+    @Transactional(readOnly = true)
     public Optional<ErrorEvent> getEvent(Integer id) {
-        return errorEventRepository.findById(id);
+        return errorEventRepository.findById(id).map(dimensionService::hydrate);
+    }
+    
+    /**
+     * Detail view: reads what lists leave out. For a tiered event that is the stack trace,
+     * device/platform extras and (if asked) breadcrumbs from its segment record; otherwise
+     * only the breadcrumbs. A missing or damaged segment leaves the summary row as it is.
+     */
+    @Transactional(readOnly = true)
+    public ErrorEvent loadDetails(ErrorEvent event, boolean includeBreadcrumbs) {
+        if (event.getPayloadSegmentId() == null) {
+            return includeBreadcrumbs ? loadBreadcrumbs(event) : event;
+        }
+        try {
+            PayloadTieringService.TieredPayload payload = payloadTiering.read(event, includeBreadcrumbs);
+            event.setStackTrace(payload.stackTrace());
+            event.setBreadcrumbs(payload.breadcrumbs());
+            dimensionService.hydrate(event, payload.deviceExtras(), payload.platformExtras());
+        } catch (IllegalStateException | UncheckedIOException e) {
+            System.err.println("[TIERING] Could not load payload of event " + event.getId() + ": " + e.getMessage());
+        }
+        return event;
+    }
+    
+    /** Decodes the event's breadcrumbs from event_breadcrumbs; list reads never do this. */
+    public ErrorEvent loadBreadcrumbs(ErrorEvent event) {
+        if (event.getBreadcrumbs() == null) {
+            breadcrumbsRepository.findById(event.getId())
+                .ifPresent(row -> event.setBreadcrumbs(breadcrumbCodec.decode(row)));
+        }
+        return event;
     }
     
     public ErrorEvent createEvent(Integer projectId, IngestRequest request) {
+        return saveEvents(List.of(buildEvent(projectId, request))).get(0);
+    }
+    
+    // Events and their encoded breadcrumbs commit together
+    public List<ErrorEvent> saveEvents(List<ErrorEvent> events) {
+        try {
+            return transactionTemplate.execute(status -> persistEvents(events));
+        } catch (RuntimeException e) {
+            // Rolled back: the ids handed out belong to no row, and a retry that kept them would
+            // merge (inserting a copy under a new id) instead of persisting these objects
+            for (ErrorEvent event : events) {
+                event.setId(null);
+            }
+            throw e;
+        }
+    }
+    
+    private List<ErrorEvent> persistEvents(List<ErrorEvent> events) {
+        List<ErrorEvent> saved = errorEventRepository.saveAll(events);
+        List<EventBreadcrumbs> breadcrumbs = new ArrayList<>();
+        // The originals carry the transient breadcrumbs, the saved rows the ids (a merged
+        // copy gets a new one); saveAll keeps the order
+        for (int i = 0; i < events.size(); i++) {
+            Object crumbs = events.get(i).getBreadcrumbs();
+            if (crumbs != null) {
+                breadcrumbs.add(breadcrumbCodec.encode(saved.get(i).getId(), crumbs));
+            }
+        }
+        breadcrumbsRepository.saveAll(breadcrumbs);
+        return saved;
+    }
+    
+    /**
+     * Background writers' save: one saveAll, and if a row violates a constraint (e.g. its
+     * project was deleted meanwhile, or a retried client event id) the rest are saved one by one and the bad rows dropped.
+     * Returns the events left unwritten because the database failed part-way through that
+     * fallback, for the caller to retry; if the first saveAll fails otherwise, nothing was written and it throws.
+     */
+    public List<ErrorEvent> saveBatch(List<ErrorEvent> events) {
+        try {
+            saveEvents(events);
+            return List.of();
+        } catch (DataIntegrityViolationException e) {
+            return saveEach(events);
+        }
+    }
+    
+    /**
+     * Saves the events one transaction each, dropping rows that violate a constraint. Stops at
+     * the first other failure and returns the events from there on (empty if all were settled).
+     */
+    public List<ErrorEvent> saveEach(List<ErrorEvent> events) {
+        for (int i = 0; i < events.size(); i++) {
+            ErrorEvent event = events.get(i);
+            try {
+                saveEvents(List.of(event));
+            } catch (DataIntegrityViolationException rowError) {
+                System.err.println("[INGEST] Dropping event for project " + event.getProjectId() + ": " + rowError.getMostSpecificCause().getMessage());
+            } catch (RuntimeException failure) {
+                System.err.println("[INGEST] Row-by-row save stopped after " + i + " of " + events.size() + " events: " + failure.getMessage());
+                return events.subList(i, events.size());
+            }
+        }
+        return List.of();
+    }
+    
+    public ErrorEvent buildEvent(Integer projectId, IngestRequest request) {
         ErrorEvent event = new ErrorEvent();
         event.setProjectId(projectId);
         event.setType(request.getType());
@@ -34,6 +156,7 @@ public class ErrorEventService {
         event.setStackTrace(request.getStackTrace());
         event.setDeviceInfo(request.getDeviceInfo());
         event.setPlatformInfo(request.getPlatformInfo());
+        dimensionService.intern(event, request.getDeviceInfo(), request.getPlatformInfo());
         event.setTags(request.getTags());
         event.setBreadcrumbs(request.getBreadcrumbs());
         
@@ -44,8 +167,9 @@ public class ErrorEventService {
         }
         
         event.setTraceId(request.getTraceId());
+        event.setClientEventId(request.getEventId());
         event.setUserName(request.getUserName());
-
+        
         // Handle both 'severity' and 'level' for compatibility
         String severity = request.getSeverity();
         if (severity == null || severity.isEmpty()) {
@@ -64,7 +188,7 @@ public class ErrorEventService {
             event.setStatus("unresolved");
         }
         
-        return errorEventRepository.save(event);
+        return event;
     }
     
     public ErrorEvent updateEvent(Integer id, UpdateEventRequest request) {
@@ -78,6 +202,6 @@ public class ErrorEventService {
             event.setSeverity(request.getSeverity());
         }
         
-        return errorEventRepository.save(event);
+        return dimensionService.hydrate(errorEventRepository.save(event));
     }
 }
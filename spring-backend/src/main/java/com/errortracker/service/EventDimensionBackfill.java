@@ -0,0 +1,72 @@
+package com.errortracker.service;
+
+import com.errortracker.config.SchedulingConfig;
+import com.errortracker.entity.ErrorEvent;
+import com.errortracker.entity.JobWatermark;
+import com.errortracker.repository.ErrorEventRepository;
+import com.errortracker.repository.JobWatermarkRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Splits device_info/platform_info on rows written before dimension interning, one short
+ * transaction per chunk, so breakdowns cover old events too. Rows whose maps hold no
+ * interned keys stay as they are; the id cursor moves past them and is kept in
+ * job_watermarks, committed with its chunk, so a restart does not rescan them.
+ */
+@Component
+public class EventDimensionBackfill {
+    private static final String WATERMARK = "event-dimension-backfill";
+    
+    private final ErrorEventRepository errorEventRepository;
+    private final JobWatermarkRepository watermarkRepository;
+    private final EventDimensionService dimensionService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    
+    public EventDimensionBackfill(ErrorEventRepository errorEventRepository, JobWatermarkRepository watermarkRepository,
+                                  EventDimensionService dimensionService, TransactionTemplate transactionTemplate,
+                                  @Value("${app.dimensions.backfill.enabled:true}") boolean enabled,
+                                  @Value("${app.dimensions.backfill.batch-size:500}") int batchSize) {
+        this.errorEventRepository = errorEventRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.dimensionService = dimensionService;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.dimensions.backfill.interval-ms:60000}", scheduler = SchedulingConfig.BATCH_SCHEDULER)
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+        List<ErrorEvent> batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                JobWatermark watermark = watermarkRepository.findById(WATERMARK).orElseGet(() -> {
+                    JobWatermark created = new JobWatermark();
+                    created.setName(WATERMARK);
+                    return created;
+                });
+                List<ErrorEvent> events = errorEventRepository.findUninternedAfter(watermark.getLastId(), batchSize);
+                for (ErrorEvent event : events) {
+                    // Managed entities: the new ids and trimmed maps are flushed on commit
+                    dimensionService.intern(event, event.getDeviceExtras(), event.getPlatformExtras());
+                }
+                if (!events.isEmpty()) {
+                    watermark.setLastId(events.get(events.size() - 1).getId());
+                    watermark.setUpdatedAt(LocalDateTime.now());
+                    watermarkRepository.save(watermark);
+                }
+                return events;
+            });
+        } while (batch != null && batch.size() >= batchSize);
+    }
+}
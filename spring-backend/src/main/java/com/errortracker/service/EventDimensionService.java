@@ -0,0 +1,284 @@
+package com.errortracker.service;
+
+import com.errortracker.entity.ErrorEvent;
+import com.errortracker.entity.EventDimension;
+import com.errortracker.repository.ErrorEventRepository;
+import com.errortracker.repository.EventDimensionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Interns the stable part of deviceInfo/platformInfo (OS, model, app version...) into
+ * event_dimensions. A project sees a few hundred combinations, so an LRU of known hashes
+ * answers almost every ingest without a query. Keys not listed in app.dimensions.*-keys
+ * vary per event and stay on the row.
+ */
+@Service
+public class EventDimensionService {
+    // A losing concurrent insert returns no row instead of failing, so it never aborts the
+    // caller's transaction (the backfill interns a whole chunk in one)
+    private static final String INSERT_SQL = "INSERT INTO event_dimensions (project_id, kind, hash, attributes) " +
+        "VALUES (?, ?, ?, CAST(? AS jsonb)) ON CONFLICT (project_id, kind, hash) DO NOTHING RETURNING id";
+    
+    // Breakdown field -> dimension kind and the attribute names SDKs use for it
+    private static final Map<String, Breakdown> BREAKDOWNS = Map.of(
+        "os", new Breakdown(EventDimension.DEVICE, List.of("os", "osName", "os_name")),
+        "osVersion", new Breakdown(EventDimension.DEVICE, List.of("osVersion", "os_version")),
+        "model", new Breakdown(EventDimension.DEVICE, List.of("model", "deviceModel", "device_model")),
+        "appVersion", new Breakdown(EventDimension.PLATFORM, List.of("version", "appVersion", "app_version", "release")),
+        "environment", new Breakdown(EventDimension.PLATFORM, List.of("environment", "env"))
+    );
+    
+    private final EventDimensionRepository dimensionRepository;
+    private final ErrorEventRepository errorEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectWriter canonicalWriter;
+    private final Set<String> deviceKeys;
+    private final Set<String> platformKeys;
+    private final Map<String, Long> idsByHash;
+    private final Map<Long, Map<String, Object>> attributesById;
+    private final Counter hits;
+    private final Counter misses;
+    
+    public EventDimensionService(EventDimensionRepository dimensionRepository, ErrorEventRepository errorEventRepository,
+                                 JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                 @Value("${app.dimensions.device-keys:os,osName,os_name,osVersion,os_version,model,deviceModel,device_model,manufacturer,brand,browser,browserVersion,arch}") Set<String> deviceKeys,
+                                 @Value("${app.dimensions.platform-keys:version,appVersion,app_version,build,release,environment,env,sdk,runtime,runtimeVersion}") Set<String> platformKeys,
+                                 @Value("${app.dimensions.cache-size:10000}") int cacheSize) {
+        this.dimensionRepository = dimensionRepository;
+        this.errorEventRepository = errorEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.canonicalWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.deviceKeys = deviceKeys;
+        this.platformKeys = platformKeys;
+        this.idsByHash = lru(cacheSize);
+        this.attributesById = lru(cacheSize);
+        this.hits = Counter.builder("dimensions.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("dimensions.cache.requests").tag("result", "miss").register(meterRegistry);
+    }
+    
+    /** Splits the event's maps into interned dimensions plus per-event extras on the row. */
+    public void intern(ErrorEvent event, Map<String, Object> deviceInfo, Map<String, Object> platformInfo) {
+        Map<String, Object> deviceExtras = new LinkedHashMap<>();
+        event.setDeviceDimensionId(intern(event.getProjectId(), EventDimension.DEVICE, split(deviceInfo, deviceKeys, deviceExtras)));
+        if (event.getDeviceDimensionId() == null && deviceInfo != null) {
+            deviceExtras = new LinkedHashMap<>(deviceInfo);
+        }
+        event.setDeviceExtras(deviceExtras.isEmpty() ? null : deviceExtras);
+        
+        Map<String, Object> platformExtras = new LinkedHashMap<>();
+        event.setPlatformDimensionId(intern(event.getProjectId(), EventDimension.PLATFORM, split(platformInfo, platformKeys, platformExtras)));
+        if (event.getPlatformDimensionId() == null && platformInfo != null) {
+            platformExtras = new LinkedHashMap<>(platformInfo);
+        }
+        event.setPlatformExtras(platformExtras.isEmpty() ? null : platformExtras);
+    }
+    
+    /** Rebuilds deviceInfo/platformInfo from cached dimensions, loading unknown ids in one query. */
+    public <T extends Iterable<ErrorEvent>> T hydrateAll(T events) {
+        Set<Long> missing = new HashSet<>();
+        for (ErrorEvent event : events) {
+            collectMissing(event.getDeviceDimensionId(), missing);
+            collectMissing(event.getPlatformDimensionId(), missing);
+        }
+        if (!missing.isEmpty()) {
+            for (EventDimension dimension : dimensionRepository.findAllById(missing)) {
+                attributesById.put(dimension.getId(), dimension.getAttributes());
+            }
+        }
+        for (ErrorEvent event : events) {
+            if (event.getDeviceDimensionId() != null) {
+                event.setDeviceInfo(merge(attributesById.get(event.getDeviceDimensionId()), event.getDeviceExtras()));
+            }
+            if (event.getPlatformDimensionId() != null) {
+                event.setPlatformInfo(merge(attributesById.get(event.getPlatformDimensionId()), event.getPlatformExtras()));
+            }
+        }
+        return events;
+    }
+    
+    public ErrorEvent hydrate(ErrorEvent event) {
+        hydrateAll(List.of(event));
+        return event;
+    }
+    
+    /** Same, with extras read from elsewhere than the row (a tiered event's segment record). */
+    public ErrorEvent hydrate(ErrorEvent event, Map<String, Object> deviceExtras, Map<String, Object> platformExtras) {
+        Set<Long> missing = new HashSet<>();
+        collectMissing(event.getDeviceDimensionId(), missing);
+        collectMissing(event.getPlatformDimensionId(), missing);
+        if (!missing.isEmpty()) {
+            for (EventDimension dimension : dimensionRepository.findAllById(missing)) {
+                attributesById.put(dimension.getId(), dimension.getAttributes());
+            }
+        }
+        if (event.getDeviceDimensionId() != null || deviceExtras != null) {
+            Map<String, Object> attributes = event.getDeviceDimensionId() != null ? attributesById.get(event.getDeviceDimensionId()) : null;
+            event.setDeviceInfo(merge(attributes, deviceExtras));
+        }
+        if (event.getPlatformDimensionId() != null || platformExtras != null) {
+            Map<String, Object> attributes = event.getPlatformDimensionId() != null ? attributesById.get(event.getPlatformDimensionId()) : null;
+            event.setPlatformInfo(merge(attributes, platformExtras));
+        }
+        return event;
+    }
+    
+    public boolean isBreakdownField(String by) {
+        return BREAKDOWNS.containsKey(by);
+    }
+    
+    /**
+     * Weighted event counts per value of one attribute (e.g. "os"), highest first. Sums by
+     * dimension id on error_events, then rolls the few hundred dimensions up in memory.
+     */
+    public List<Map<String, Object>> breakdown(Integer projectId, String by, LocalDateTime since) {
+        Breakdown breakdown = BREAKDOWNS.get(by);
+        List<Object[]> rows = EventDimension.DEVICE.equals(breakdown.kind())
+            ? errorEventRepository.sumSampleWeightByDeviceDimension(projectId, since)
+            : errorEventRepository.sumSampleWeightByPlatformDimension(projectId, since);
+        
+        Set<Long> missing = new HashSet<>();
+        for (Object[] row : rows) {
+            collectMissing((Long) row[0], missing);
+        }
+        if (!missing.isEmpty()) {
+            for (EventDimension dimension : dimensionRepository.findAllById(missing)) {
+                attributesById.put(dimension.getId(), dimension.getAttributes());
+            }
+        }
+        
+        Map<String, Double> totals = new HashMap<>();
+        for (Object[] row : rows) {
+            Map<String, Object> attributes = row[0] != null ? attributesById.get((Long) row[0]) : null;
+            String value = attributes != null ? firstValue(attributes, breakdown.attributes()) : null;
+            totals.merge(value != null ? value : "unknown", ((Number) row[1]).doubleValue(), Double::sum);
+        }
+        
+        List<Map<String, Object>> result = new ArrayList<>(totals.size());
+        totals.entrySet().stream()
+            .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+            .forEach(entry -> result.add(Map.of("value", entry.getKey(), "events", Math.round(entry.getValue()))));
+        return result;
+    }
+    
+    private Long intern(Integer projectId, String kind, Map<String, Object> attributes) {
+        if (attributes.isEmpty()) {
+            return null;
+        }
+        long hash = hash(attributes);
+        String key = projectId + ":" + kind + ":" + hash;
+        Long cached = idsByHash.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        
+        EventDimension dimension = dimensionRepository.findByProjectIdAndKindAndHash(projectId, kind, hash)
+            .orElseGet(() -> insert(projectId, kind, hash, attributes));
+        if (dimension.getId() != null) {
+            idsByHash.put(key, dimension.getId());
+            attributesById.put(dimension.getId(), dimension.getAttributes());
+        }
+        return dimension.getId();
+    }
+    
+    private EventDimension insert(Integer projectId, String kind, long hash, Map<String, Object> attributes) {
+        String json;
+        try {
+            json = canonicalWriter.writeValueAsString(attributes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize dimension", e);
+        }
+        List<Long> ids = jdbcTemplate.queryForList(INSERT_SQL, Long.class, projectId, kind, hash, json);
+        if (ids.isEmpty()) {
+            // Another node interned it first
+            return dimensionRepository.findByProjectIdAndKindAndHash(projectId, kind, hash)
+                .orElseThrow(() -> new IllegalStateException("Dimension " + kind + " " + hash + " vanished after a conflicting insert"));
+        }
+        EventDimension dimension = new EventDimension();
+        dimension.setId(ids.get(0));
+        dimension.setProjectId(projectId);
+        dimension.setKind(kind);
+        dimension.setHash(hash);
+        dimension.setAttributes(attributes);
+        return dimension;
+    }
+    
+    private long hash(Map<String, Object> attributes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonicalWriter.writeValueAsBytes(attributes));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash dimension", e);
+        }
+    }
+    
+    private void collectMissing(Long id, Set<Long> missing) {
+        if (id != null && !attributesById.containsKey(id)) {
+            missing.add(id);
+        }
+    }
+    
+    private static Map<String, Object> split(Map<String, Object> info, Set<String> keys, Map<String, Object> extras) {
+        Map<String, Object> stable = new LinkedHashMap<>();
+        if (info != null) {
+            for (Map.Entry<String, Object> entry : info.entrySet()) {
+                (keys.contains(entry.getKey()) ? stable : extras).put(entry.getKey(), entry.getValue());
+            }
+        }
+        return stable;
+    }
+    
+    private static Map<String, Object> merge(Map<String, Object> attributes, Map<String, Object> extras) {
+        Map<String, Object> merged = new LinkedHashMap<>();
+        if (attributes != null) {
+            merged.putAll(attributes);
+        }
+        if (extras != null) {
+            merged.putAll(extras);
+        }
+        return merged;
+    }
+    
+    private static String firstValue(Map<String, Object> attributes, List<String> names) {
+        for (String name : names) {
+            Object value = attributes.get(name);
+            if (value != null) {
+                return String.valueOf(value);
+            }
+        }
+        return null;
+    }
+    
+    private static <K, V> Map<K, V> lru(int capacity) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > capacity;
+            }
+        });
+    }
+    
+    private record Breakdown(String kind, List<String> attributes) {}
+}
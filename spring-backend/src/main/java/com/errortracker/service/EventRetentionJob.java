@@ -0,0 +1,168 @@
+package com.errortracker.service;
+
+import com.errortracker.config.SchedulingConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retention for raw events older than app.retention.age-days, one (project, day) unit at a
+ * time across a small thread pool. In "downsample" mode each unit is first rolled up into
+ * event_daily_aggregates by fingerprint (md5 of type and message) and a few rows per
+ * fingerprint are kept as samples; "delete" just drops the rows.
+ *
+ * Nothing holds a long transaction: the roll-up is one short transaction, and rows are deleted in
+ * chunks of batch-size, each its own statement. The database is the only state, so a run
+ * that stops halfway is picked up by the next one: the roll-up of a unit that already has
+ * aggregates does nothing, and its remaining rows are deleted.
+ */
+@Component
+public class EventRetentionJob {
+    private static final String UNITS_SQL = "SELECT project_id, CAST(created_at AS date) AS day FROM error_events " +
+        "WHERE created_at < ? AND retained_sample IS NOT TRUE GROUP BY 1, 2 ORDER BY 2, 1";
+    
+    private static final String AGGREGATE_SQL = "WITH e AS (" +
+        "  SELECT id, type, message, COALESCE(severity, 'unknown') AS severity, user_name, COALESCE(sample_weight, 1.0) AS weight," +
+        "         md5(type || E'\\n' || message) AS fingerprint" +
+        "  FROM error_events WHERE project_id = ? AND created_at >= ? AND created_at < ? AND retained_sample IS NOT TRUE" +
+        "), by_severity AS (" +
+        "  SELECT fingerprint, jsonb_object_agg(severity, events) AS counts FROM (" +
+        "    SELECT fingerprint, severity, SUM(weight) AS events FROM e GROUP BY fingerprint, severity" +
+        "  ) s GROUP BY fingerprint" +
+        ") " +
+        "INSERT INTO event_daily_aggregates (project_id, day, fingerprint, type, message, event_count, distinct_users, " +
+        "  user_names, severity_counts, sample_event_ids, created_at) " +
+        "SELECT ?, ?, e.fingerprint, MIN(e.type), MIN(e.message), SUM(e.weight), COUNT(DISTINCT e.user_name), " +
+        "  COALESCE(jsonb_agg(DISTINCT e.user_name) FILTER (WHERE e.user_name IS NOT NULL), '[]'::jsonb), " +
+        "  b.counts, to_jsonb((array_agg(e.id ORDER BY e.id DESC))[1:?]), now() " +
+        "FROM e JOIN by_severity b ON b.fingerprint = e.fingerprint GROUP BY e.fingerprint, b.counts " +
+        "ON CONFLICT (project_id, day, fingerprint) DO NOTHING";
+    
+    private static final String MARK_SAMPLES_SQL = "UPDATE error_events SET retained_sample = true WHERE id IN (" +
+        "SELECT CAST(jsonb_array_elements_text(sample_event_ids) AS integer) FROM event_daily_aggregates WHERE project_id = ? AND day = ?)";
+    
+    // Breadcrumbs are not an association, so they go in the same statement as their events
+    private static final String DELETE_CHUNK_SQL = "WITH doomed AS (" +
+        "  SELECT id FROM error_events WHERE project_id = ? AND created_at >= ? AND created_at < ? AND retained_sample IS NOT TRUE LIMIT ?" +
+        "), crumbs AS (" +
+        "  DELETE FROM event_breadcrumbs WHERE event_id IN (SELECT id FROM doomed)" +
+        ") " +
+        "DELETE FROM error_events WHERE id IN (SELECT id FROM doomed)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String mode;
+    private final int ageDays;
+    private final int batchSize;
+    private final int parallelism;
+    private final int samplesPerFingerprint;
+    private final Counter rowsDeleted;
+    private final Counter aggregatesWritten;
+    
+    public EventRetentionJob(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                             @Value("${app.retention.mode:none}") String mode,
+                             @Value("${app.retention.age-days:90}") int ageDays,
+                             @Value("${app.retention.batch-size:5000}") int batchSize,
+                             @Value("${app.retention.parallelism:4}") int parallelism,
+                             @Value("${app.retention.samples-per-fingerprint:3}") int samplesPerFingerprint) {
+        if (!List.of("none", "delete", "downsample").contains(mode)) {
+            throw new IllegalArgumentException("app.retention.mode must be none, delete or downsample, not " + mode);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.mode = mode;
+        this.ageDays = ageDays;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.samplesPerFingerprint = samplesPerFingerprint;
+        this.rowsDeleted = Counter.builder("retention.rows.deleted").register(meterRegistry);
+        this.aggregatesWritten = Counter.builder("retention.aggregates.written").register(meterRegistry);
+    }
+    
+    @Scheduled(cron = "${app.retention.cron:0 0 5 * * *}", scheduler = SchedulingConfig.BATCH_SCHEDULER)
+    public void run() {
+        if ("none".equals(mode)) {
+            return;
+        }
+        // Whole days only, so a unit is never split by the cutoff
+        LocalDate cutoff = LocalDate.now().minusDays(ageDays);
+        List<Unit> units;
+        try {
+            units = jdbcTemplate.query(UNITS_SQL, (rs, row) -> new Unit(rs.getInt(1), rs.getDate(2).toLocalDate()),
+                Timestamp.valueOf(cutoff.atStartOfDay()));
+        } catch (DataAccessException e) {
+            System.err.println("[RETENTION] Could not list expired days: " + e.getMostSpecificCause().getMessage());
+            return;
+        }
+        if (units.isEmpty()) {
+            return;
+        }
+        
+        AtomicLong deleted = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "event-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> pending = new ArrayList<>(units.size());
+            for (Unit unit : units) {
+                pending.add(pool.submit(() -> deleted.addAndGet(process(unit))));
+            }
+            for (Future<?> future : pending) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // That unit is retried on the next run; the others carry on
+                    System.err.println("[RETENTION] " + e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+        System.out.println("[RETENTION] " + mode + ": " + units.size() + " project-days before " + cutoff + ", " + deleted.get() + " rows deleted");
+    }
+    
+    private long process(Unit unit) {
+        Timestamp from = Timestamp.valueOf(unit.day().atStartOfDay());
+        Timestamp to = Timestamp.valueOf(unit.day().plusDays(1).atStartOfDay());
+        if ("downsample".equals(mode)) {
+            // Aggregates and sample marks commit together, before any row of the unit is deleted
+            Integer written = transactionTemplate.execute(status -> {
+                int rows = jdbcTemplate.update(AGGREGATE_SQL, unit.projectId(), from, to,
+                    unit.projectId(), Date.valueOf(unit.day()), samplesPerFingerprint);
+                jdbcTemplate.update(MARK_SAMPLES_SQL, unit.projectId(), Date.valueOf(unit.day()));
+                return rows;
+            });
+            aggregatesWritten.increment(written != null ? written : 0);
+        }
+        long total = 0;
+        int chunk;
+        do {
+            chunk = jdbcTemplate.update(DELETE_CHUNK_SQL, unit.projectId(), from, to, batchSize);
+            total += chunk;
+            rowsDeleted.increment(chunk);
+        } while (chunk >= batchSize);
+        return total;
+    }
+    
+    private record Unit(int projectId, LocalDate day) {}
+}
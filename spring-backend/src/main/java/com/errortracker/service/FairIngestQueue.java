@@ -0,0 +1,288 @@
+package com.errortracker.service;
+
+import com.errortracker.entity.ErrorEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory ingest queue with one FIFO per project, drained by a single writer thread
+ * using deficit round robin. Every active project gets its quantum of events per round
+ * (scaled by its rate limit), so a project in a crash loop only delays its own events.
+ * Events within a project are written in arrival order.
+ *
+ * A batch the database keeps refusing is retried max-write-attempts times with backoff and
+ * then written to a JSON-lines file in dead-letter-dir, so an outage cannot stall every
+ * project behind one batch.
+ */
+@Component
+@ConditionalOnProperty(name = "app.ingest.mode", havingValue = "queued")
+public class FairIngestQueue {
+    private final ErrorEventService errorEventService;
+    private final IngestLoadShedder loadShedder;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final int quantum;
+    private final int defaultRatePerSecond;
+    private final int capacity;
+    private final int projectCapacity;
+    private final int batchSize;
+    private final int maxWriteAttempts;
+    private final Path deadLetterDir;
+    private final Counter deadLettered;
+    private final Thread writer;
+    
+    // Writer thread only
+    private final Map<Integer, Timer> waitTimers = new HashMap<>();
+    
+    // All guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Map<Integer, ProjectQueue> queues = new HashMap<>();
+    private final ArrayDeque<ProjectQueue> active = new ArrayDeque<>();
+    private int size;
+    private volatile boolean running = true;
+    
+    public FairIngestQueue(ErrorEventService errorEventService, IngestLoadShedder loadShedder, MeterRegistry meterRegistry,
+                           ObjectMapper objectMapper,
+                           @Value("${app.ingest.queue.quantum:20}") int quantum,
+                           @Value("${app.ingest.rate-limit.default-per-second:100}") int defaultRatePerSecond,
+                           @Value("${app.ingest.queue.capacity:20000}") int capacity,
+                           @Value("${app.ingest.queue.project-capacity:5000}") int projectCapacity,
+                           @Value("${app.ingest.queue.batch-size:200}") int batchSize,
+                           @Value("${app.ingest.queue.max-write-attempts:5}") int maxWriteAttempts,
+                           @Value("${app.ingest.queue.dead-letter-dir:./data/ingest-dead-letter}") String deadLetterDir) {
+        this.errorEventService = errorEventService;
+        this.loadShedder = loadShedder;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.quantum = quantum;
+        this.defaultRatePerSecond = defaultRatePerSecond;
+        this.capacity = capacity;
+        this.projectCapacity = projectCapacity;
+        this.batchSize = batchSize;
+        this.maxWriteAttempts = maxWriteAttempts;
+        this.deadLetterDir = Path.of(deadLetterDir);
+        this.deadLettered = Counter.builder("ingest.queue.dead_lettered")
+            .description("Queued events written to the dead-letter directory after repeated write failures")
+            .register(meterRegistry);
+        Gauge.builder("ingest.queue.depth", this, FairIngestQueue::size)
+            .description("Events waiting in the fair ingest queue")
+            .register(meterRegistry);
+        this.writer = new Thread(this::writeLoop, "ingest-queue-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+    
+    /**
+     * Queues an event for the writer. Returns false if the project's share or the whole
+     * queue is full. rateLimitPerSecond (nullable) sets the project's weight.
+     */
+    public boolean offer(ErrorEvent event, Integer rateLimitPerSecond) {
+        lock.lock();
+        try {
+            if (!running || size >= capacity) {
+                return false;
+            }
+            ProjectQueue queue = queues.computeIfAbsent(event.getProjectId(), ProjectQueue::new);
+            if (queue.events.size() >= projectCapacity) {
+                return false;
+            }
+            int rate = rateLimitPerSecond != null ? rateLimitPerSecond : defaultRatePerSecond;
+            queue.quantum = Math.max(1, (int) ((long) quantum * rate / defaultRatePerSecond));
+            queue.events.addLast(new Pending(event, System.nanoTime()));
+            if (!queue.active) {
+                queue.active = true;
+                active.addLast(queue);
+            }
+            size++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            // The writer drains what is left before exiting
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void writeLoop() {
+        while (true) {
+            List<Pending> batch;
+            try {
+                batch = nextBatch();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (batch == null) {
+                return;
+            }
+            write(batch);
+        }
+    }
+    
+    /** One or more DRR rounds, until the batch is full or the queue is empty. Null on shutdown. */
+    private List<Pending> nextBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            while (size == 0) {
+                if (!running) {
+                    return null;
+                }
+                notEmpty.await();
+            }
+            List<Pending> batch = new ArrayList<>(Math.min(size, batchSize));
+            while (batch.size() < batchSize && !active.isEmpty()) {
+                ProjectQueue queue = active.pollFirst();
+                if (!queue.carriedOver) {
+                    queue.deficit += queue.quantum;
+                }
+                int take = Math.min(queue.deficit, Math.min(queue.events.size(), batchSize - batch.size()));
+                for (int i = 0; i < take; i++) {
+                    batch.add(queue.events.pollFirst());
+                }
+                queue.deficit -= take;
+                size -= take;
+                if (queue.events.isEmpty()) {
+                    queue.deficit = 0;
+                    queue.active = false;
+                    queue.carriedOver = false;
+                    queues.remove(queue.projectId);
+                } else if (queue.deficit > 0) {
+                    // Batch filled mid-turn; finish this project's turn in the next batch
+                    queue.carriedOver = true;
+                    active.addFirst(queue);
+                } else {
+                    queue.carriedOver = false;
+                    active.addLast(queue);
+                }
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void write(List<Pending> batch) {
+        long dequeued = System.nanoTime();
+        List<ErrorEvent> remaining = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            remaining.add(pending.event);
+            waitTimer(pending.event.getProjectId()).record(dequeued - pending.enqueuedAt, TimeUnit.NANOSECONDS);
+        }
+        long backoffMs = 100;
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            int attempted = remaining.size();
+            try {
+                // A failed save leaves no row and clears the ids, so a retry persists the same events afresh
+                remaining = errorEventService.saveBatch(remaining);
+            } catch (RuntimeException e) {
+                System.err.println("[INGEST] Queue write failed (attempt " + attempt + "/" + maxWriteAttempts + "): " + e.getMessage());
+            } finally {
+                loadShedder.recordDbWrite((System.nanoTime() - start) / attempted);
+            }
+            if (remaining.isEmpty()) {
+                return;
+            }
+            if (attempt >= maxWriteAttempts) {
+                deadLetter(remaining);
+                return;
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                deadLetter(remaining);
+                return;
+            }
+            backoffMs = Math.min(backoffMs * 2, 5000);
+        }
+    }
+    
+    private Timer waitTimer(Integer projectId) {
+        return waitTimers.computeIfAbsent(projectId, id -> Timer.builder("ingest.queue.wait")
+            .description("Time an event spent in the fair ingest queue")
+            .tag("project", id.toString())
+            .register(meterRegistry));
+    }
+    
+    private void deadLetter(List<ErrorEvent> events) {
+        Path file = deadLetterDir.resolve("queue-" + System.currentTimeMillis() + "-" + events.get(0).hashCode() + ".jsonl");
+        try {
+            Files.createDirectories(deadLetterDir);
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (ErrorEvent event : events) {
+                    out.write(objectMapper.writeValueAsString(event));
+                    out.newLine();
+                }
+            }
+            deadLettered.increment(events.size());
+            System.err.println("[INGEST] Gave up on " + events.size() + " queued events, written to " + file);
+        } catch (IOException e) {
+            System.err.println("[INGEST] Dropping " + events.size() + " queued events, dead-letter write failed: " + e.getMessage());
+        }
+    }
+    
+    private static final class ProjectQueue {
+        final Integer projectId;
+        final ArrayDeque<Pending> events = new ArrayDeque<>();
+        int quantum;
+        int deficit;
+        boolean active;
+        boolean carriedOver;
+        
+        ProjectQueue(Integer projectId) {
+            this.projectId = projectId;
+        }
+    }
+    
+    private record Pending(ErrorEvent event, long enqueuedAt) {}
+}
@@ -0,0 +1,57 @@
+package com.errortracker.service;
+
+import com.errortracker.repository.ErrorEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Suppresses SDK retries carrying a client event id. A rotating Bloom filter answers
+ * "never seen" without touching the database; only a possible hit costs an indexed
+ * lookup. The unique (project_id, client_event_id) index catches what the window misses.
+ */
+@Component
+public class IngestDeduplicator {
+    private final RotatingBloomFilter seen;
+    private final ErrorEventRepository errorEventRepository;
+    private final Counter duplicates;
+    private final Counter falsePositives;
+    
+    public IngestDeduplicator(ErrorEventRepository errorEventRepository, MeterRegistry meterRegistry,
+                              @Value("${app.ingest.dedupe.expected-per-interval:1000000}") int expectedPerInterval,
+                              @Value("${app.ingest.dedupe.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.errorEventRepository = errorEventRepository;
+        this.seen = new RotatingBloomFilter(expectedPerInterval, falsePositiveRate);
+        this.duplicates = Counter.builder("ingest.dedupe").tag("result", "duplicate").register(meterRegistry);
+        this.falsePositives = Counter.builder("ingest.dedupe").tag("result", "false_positive").register(meterRegistry);
+    }
+    
+    /**
+     * Returns the id of the already stored event if this is a retry; otherwise remembers
+     * the id and returns empty. Retries of events still in the spool or queue are not
+     * visible yet and are dropped by the unique index when written.
+     */
+    public Optional<Integer> findDuplicate(Integer projectId, String clientEventId) {
+        String key = projectId + ":" + clientEventId;
+        if (seen.mightContain(key)) {
+            Optional<Integer> existing = errorEventRepository.findIdByProjectIdAndClientEventId(projectId, clientEventId);
+            if (existing.isPresent()) {
+                duplicates.increment();
+                return existing;
+            }
+            falsePositives.increment();
+        }
+        seen.put(key);
+        return Optional.empty();
+    }
+    
+    @Scheduled(fixedRateString = "${app.ingest.dedupe.rotate-interval-ms:300000}",
+               initialDelayString = "${app.ingest.dedupe.rotate-interval-ms:300000}")
+    public void rotate() {
+        seen.rotate();
+    }
+}
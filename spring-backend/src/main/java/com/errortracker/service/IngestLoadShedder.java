@@ -0,0 +1,164 @@
+package com.errortracker.service;
+
+import com.errortracker.dto.IngestRequest;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Global ingest backpressure. A scheduled check turns connection-pool waiters, DB write
+ * latency and spool backlog / queue depth into a shedding level; ingest only reads that level.
+ *
+ * Level 1 sheds low-priority events, level 2 also sheds medium. High and critical
+ * events are never shed, so a DB hiccup costs us noise rather than real crashes and
+ * dashboard requests keep getting pool connections.
+ */
+@Component
+public class IngestLoadShedder {
+    public static final int PRIORITY_LOW = 0;
+    public static final int PRIORITY_MEDIUM = 1;
+    public static final int PRIORITY_HIGH = 2;
+    
+    private static final double EWMA_ALPHA = 0.2;
+    // Fraction of a level's threshold pressure must fall below before stepping down
+    private static final double RECOVERY_RATIO = 0.7;
+    
+    private final DataSource dataSource;
+    private final ObjectProvider<IngestSpool> spool;
+    private final ObjectProvider<FairIngestQueue> queue;
+    
+    @Value("${app.ingest.shedding.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.ingest.shedding.pool-wait-threshold:5}")
+    private int poolWaitThreshold;
+    
+    @Value("${app.ingest.shedding.db-latency-threshold-ms:200}")
+    private long dbLatencyThresholdMs;
+    
+    @Value("${app.ingest.shedding.backlog-threshold-mb:256}")
+    private long backlogThresholdMb;
+    
+    @Value("${app.ingest.shedding.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+    
+    private volatile int level;
+    // Written racily from many threads; an occasional lost sample doesn't matter for an average
+    private volatile double dbLatencyEwmaMs;
+    private volatile long lastLatencySample = System.nanoTime();
+    private HikariPoolMXBean pool;
+    
+    public IngestLoadShedder(DataSource dataSource, ObjectProvider<IngestSpool> spool, ObjectProvider<FairIngestQueue> queue,
+                             MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.spool = spool;
+        this.queue = queue;
+        Gauge.builder("ingest.shedding.level", this, shedder -> shedder.level)
+            .description("0 = accepting everything, 1 = shedding low, 2 = shedding low and medium")
+            .register(meterRegistry);
+        Gauge.builder("ingest.db.latency.ewma", this, shedder -> shedder.dbLatencyEwmaMs)
+            .description("Smoothed DB write latency seen by ingest")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+    
+    /** True if the event should be rejected with 503 under the current load. */
+    public boolean shouldShed(IngestRequest request) {
+        int current = level;
+        return current > 0 && priorityOf(request) < current;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+    
+    public void recordDbWrite(long nanos) {
+        double ms = nanos / 1_000_000.0;
+        dbLatencyEwmaMs = dbLatencyEwmaMs + EWMA_ALPHA * (ms - dbLatencyEwmaMs);
+        lastLatencySample = System.nanoTime();
+    }
+    
+    @Scheduled(fixedRateString = "${app.ingest.shedding.check-interval-ms:250}")
+    public void evaluate() {
+        if (!enabled) {
+            level = 0;
+            return;
+        }
+        // With no writes the average would stay frozen at its last value; let it decay
+        if (System.nanoTime() - lastLatencySample > TimeUnit.SECONDS.toNanos(5)) {
+            dbLatencyEwmaMs = dbLatencyEwmaMs * 0.5;
+        }
+        
+        double pressure = dbLatencyEwmaMs / dbLatencyThresholdMs;
+        HikariPoolMXBean poolBean = pool();
+        if (poolBean != null) {
+            pressure = Math.max(pressure, (double) poolBean.getThreadsAwaitingConnection() / poolWaitThreshold);
+        }
+        IngestSpool ingestSpool = spool.getIfAvailable();
+        if (ingestSpool != null) {
+            pressure = Math.max(pressure, ingestSpool.backlogBytes() / (backlogThresholdMb * 1024.0 * 1024.0));
+        }
+        FairIngestQueue ingestQueue = queue.getIfAvailable();
+        if (ingestQueue != null) {
+            // Half full starts shedding low, so the queue rarely has to reject high/critical
+            pressure = Math.max(pressure, 2.0 * ingestQueue.size() / ingestQueue.getCapacity());
+        }
+        
+        int target = pressure >= 2 ? 2 : pressure >= 1 ? 1 : 0;
+        int current = level;
+        if (target > current) {
+            level = target;
+            System.out.println("[INGEST] Load shedding raised to level " + target + " (pressure " + String.format("%.2f", pressure) + ")");
+        } else if (target < current && pressure < current * RECOVERY_RATIO) {
+            level = current - 1;
+            System.out.println("[INGEST] Load shedding lowered to level " + (current - 1));
+        }
+    }
+    
+    /** Maps severity (or SDK level) to a shedding priority; unknown values count as low. */
+    public static int priorityOf(IngestRequest request) {
+        String severity = request.getSeverity();
+        if (severity == null || severity.isEmpty()) {
+            severity = request.getLevel();
+        }
+        if (severity == null) {
+            return PRIORITY_MEDIUM; // stored as "medium" by ErrorEventService
+        }
+        switch (severity.toLowerCase()) {
+            case "critical":
+            case "fatal":
+            case "high":
+            case "error":
+                return PRIORITY_HIGH;
+            case "medium":
+            case "warning":
+            case "warn":
+                return PRIORITY_MEDIUM;
+            default:
+                return PRIORITY_LOW;
+        }
+    }
+    
+    private HikariPoolMXBean pool() {
+        if (pool == null) {
+            try {
+                if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    // Null until the pool has started
+                    pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+                }
+            } catch (SQLException e) {
+                return null;
+            }
+        }
+        return pool;
+    }
+}
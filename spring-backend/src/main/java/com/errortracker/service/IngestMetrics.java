@@ -0,0 +1,51 @@
+package com.errortracker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+@Component
+public class IngestMetrics {
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary eventListSize;
+    
+    public IngestMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.eventListSize = DistributionSummary.builder("events.list.size")
+            .description("Events returned per dashboard event-list request")
+            .baseUnit("events")
+            .register(meterRegistry);
+    }
+    
+    public Timer.Sample startIngest() {
+        return Timer.start(meterRegistry);
+    }
+    
+    // outcome is a small fixed set (accepted, sampled, rate_limited, shed, invalid_key, ...) to keep series bounded
+    public void recordIngest(Timer.Sample sample, Integer projectId, String outcome) {
+        recordIngest(sample, projectId, outcome, 1);
+    }
+    
+    // Batch requests: one latency sample, storedEvents added to the event counter
+    public void recordIngest(Timer.Sample sample, Integer projectId, String outcome, int storedEvents) {
+        String project = projectId != null ? projectId.toString() : "unknown";
+        sample.stop(Timer.builder("ingest.latency")
+            .description("Time spent handling an ingest request")
+            .tag("project", project)
+            .tag("outcome", outcome)
+            .register(meterRegistry));
+        if ("accepted".equals(outcome) || "sampled".equals(outcome)) {
+            Counter.builder("ingest.events")
+                .description("Events accepted by ingest")
+                .tag("project", project)
+                .register(meterRegistry)
+                .increment(storedEvents);
+        }
+    }
+    
+    public void recordEventListSize(int size) {
+        eventListSize.record(size);
+    }
+}
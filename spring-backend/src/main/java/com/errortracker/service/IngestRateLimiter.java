@@ -0,0 +1,122 @@
+package com.errortracker.service;
+
+import com.errortracker.entity.Project;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-project ingest quota. Each project has a token bucket kept as a single atomic
+ * "theoretical arrival time" (GCRA), so the check is one CAS with no locks.
+ *
+ * Events over the limit are sampled: the probability is the project's sample rate,
+ * lowered when overflow traffic is heavy so sampled events never exceed
+ * sampleRate * limit per second. Kept events carry weight 1/p so counts can be
+ * extrapolated; the rest are rejected with a Retry-After.
+ */
+@Component
+public class IngestRateLimiter {
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
+    private final Map<Integer, Bucket> buckets = new ConcurrentHashMap<>();
+    private final int defaultRatePerSecond;
+    private final int defaultBurst;
+    private final double defaultSampleRate;
+    
+    public IngestRateLimiter(@Value("${app.ingest.rate-limit.default-per-second:100}") int defaultRatePerSecond,
+                             @Value("${app.ingest.rate-limit.default-burst:500}") int defaultBurst,
+                             @Value("${app.ingest.rate-limit.default-sample-rate:0.1}") double defaultSampleRate) {
+        this.defaultRatePerSecond = defaultRatePerSecond;
+        this.defaultBurst = defaultBurst;
+        this.defaultSampleRate = defaultSampleRate;
+    }
+    
+    public Decision acquire(Project project) {
+        Bucket bucket = buckets.computeIfAbsent(project.getId(), id -> newBucket(project));
+        long now = System.nanoTime();
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos == 0) {
+            return Decision.ALLOWED;
+        }
+        
+        double probability = bucket.sampleProbability(now);
+        if (probability > 0 && ThreadLocalRandom.current().nextDouble() < probability) {
+            return new Decision(true, 1.0 / probability, 0);
+        }
+        return new Decision(false, 0, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + WINDOW_NANOS - 1)));
+    }
+    
+    /** Drops the project's bucket so the next event picks up changed quota settings. */
+    public void reset(Integer projectId) {
+        buckets.remove(projectId);
+    }
+    
+    private Bucket newBucket(Project project) {
+        int rate = project.getRateLimitPerSecond() != null ? project.getRateLimitPerSecond() : defaultRatePerSecond;
+        int burst = project.getRateLimitBurst() != null ? project.getRateLimitBurst() : defaultBurst;
+        double sampleRate = project.getOverQuotaSampleRate() != null ? project.getOverQuotaSampleRate() : defaultSampleRate;
+        return new Bucket(Math.max(1, rate), Math.max(1, burst), sampleRate);
+    }
+    
+    /**
+     * accepted=false means reject with Retry-After; otherwise store the event with
+     * the given sample weight.
+     */
+    public record Decision(boolean accepted, double sampleWeight, long retryAfterSeconds) {
+        static final Decision ALLOWED = new Decision(true, 1.0, 0);
+    }
+    
+    static final class Bucket {
+        private final long emissionInterval;
+        private final long burstTolerance;
+        private final double sampleRate;
+        private final double sampleBudgetPerWindow;
+        private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+        
+        // Overflow arrivals in the current and previous one-second windows
+        private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+        private final AtomicLong overflowCurrent = new AtomicLong();
+        private volatile long overflowPrevious;
+        
+        Bucket(int ratePerSecond, int burst, double sampleRate) {
+            this.emissionInterval = WINDOW_NANOS / ratePerSecond;
+            this.burstTolerance = emissionInterval * (burst - 1);
+            this.sampleRate = Math.min(1.0, Math.max(0.0, sampleRate));
+            this.sampleBudgetPerWindow = this.sampleRate * ratePerSecond;
+        }
+        
+        /** Returns 0 if a token was taken, otherwise nanoseconds until one is available. */
+        long tryAcquire(long now) {
+            while (true) {
+                long tat = theoreticalArrival.get();
+                long base = tat == Long.MIN_VALUE || tat < now ? now : tat;
+                long allowAt = base - burstTolerance;
+                if (allowAt > now) {
+                    return allowAt - now;
+                }
+                if (theoreticalArrival.compareAndSet(tat, base + emissionInterval)) {
+                    return 0;
+                }
+            }
+        }
+        
+        double sampleProbability(long now) {
+            if (sampleRate == 0) {
+                return 0;
+            }
+            long start = windowStart.get();
+            if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+                // A gap longer than one window means the previous window saw nothing
+                overflowPrevious = now - start >= 2 * WINDOW_NANOS ? 0 : overflowCurrent.get();
+                overflowCurrent.set(0);
+            }
+            long overflow = Math.max(overflowCurrent.incrementAndGet(), overflowPrevious);
+            return Math.min(sampleRate, sampleBudgetPerWindow / overflow);
+        }
+    }
+}
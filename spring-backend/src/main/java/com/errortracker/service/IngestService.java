@@ -0,0 +1,142 @@
+package com.errortracker.service;
+
+import com.errortracker.dto.IngestRequest;
+import com.errortracker.entity.ErrorEvent;
+import com.errortracker.entity.Project;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry point for accepted SDK events, per app.ingest.mode:
+ * - "direct": written to Postgres inline.
+ * - "spool": appended to the local IngestSpool and replayed later, so ingest keeps
+ *   working while the database is slow or failing over.
+ * - "queued": handed to the in-memory FairIngestQueue, which batches writes and keeps
+ *   one project's burst from delaying the others. Not durable across a crash.
+ */
+@Service
+public class IngestService {
+    private final ErrorEventService errorEventService;
+    private final ObjectMapper objectMapper;
+    private final IngestSpool spool;
+    private final FairIngestQueue queue;
+    private final IngestLoadShedder loadShedder;
+    
+    public IngestService(ErrorEventService errorEventService, ObjectMapper objectMapper,
+                         ObjectProvider<IngestSpool> spool, ObjectProvider<FairIngestQueue> queue,
+                         IngestLoadShedder loadShedder,
+                         @Value("${app.ingest.mode:direct}") String mode) {
+        this.errorEventService = errorEventService;
+        this.objectMapper = objectMapper;
+        this.loadShedder = loadShedder;
+        this.spool = "spool".equals(mode) ? spool.getObject() : null;
+        this.queue = "queued".equals(mode) ? queue.getObject() : null;
+    }
+    
+    /**
+     * Stores the event; returns null when it was deferred to the spool or queue.
+     * Throws IllegalStateException if the queue has no room for it.
+     */
+    public ErrorEvent ingest(Project project, IngestRequest request, double sampleWeight) {
+        if (spool != null) {
+            // The key has already been resolved to the project; don't keep it on disk
+            request.setApiKey(null);
+            try {
+                spool.append(project.getId(), objectMapper.writeValueAsBytes(new SpooledEvent(sampleWeight, request)));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Could not serialize event", e);
+            }
+            return null;
+        }
+        
+        ErrorEvent event = errorEventService.buildEvent(project.getId(), request);
+        event.setSampleWeight(sampleWeight);
+        if (queue != null) {
+            if (!queue.offer(event, project.getRateLimitPerSecond())) {
+                throw new IllegalStateException("Ingest queue is full");
+            }
+            return null;
+        }
+        
+        long start = System.nanoTime();
+        try {
+            return errorEventService.saveEvents(List.of(event)).get(0);
+        } catch (DataIntegrityViolationException e) {
+            // Two retries raced past the dedupe filter; the unique index kept the first
+            if (request.getEventId() == null) {
+                throw e;
+            }
+            return errorEventService.getEventByClientId(project.getId(), request.getEventId()).orElseThrow(() -> e);
+        } finally {
+            // Failed and timed-out writes count too; they are what the shedder is watching for
+            loadShedder.recordDbWrite(System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * Stores a batch from one project, in one database write or one spool fsync where the
+     * mode allows. Returns how many events were taken, in order; it stops short when the
+     * queue fills part-way, or when the database fails part-way through a row-by-row save.
+     */
+    public int ingestAll(Project project, List<IngestRequest> requests, List<Double> sampleWeights) {
+        if (spool != null) {
+            List<byte[]> payloads = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                IngestRequest request = requests.get(i);
+                request.setApiKey(null);
+                try {
+                    payloads.add(objectMapper.writeValueAsBytes(new SpooledEvent(sampleWeights.get(i), request)));
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException("Could not serialize event", e);
+                }
+            }
+            spool.appendAll(project.getId(), payloads);
+            return requests.size();
+        }
+        
+        List<ErrorEvent> events = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            ErrorEvent event = errorEventService.buildEvent(project.getId(), requests.get(i));
+            event.setSampleWeight(sampleWeights.get(i));
+            events.add(event);
+        }
+        if (queue != null) {
+            for (int i = 0; i < events.size(); i++) {
+                if (!queue.offer(events.get(i), project.getRateLimitPerSecond())) {
+                    return i;
+                }
+            }
+            return events.size();
+        }
+        
+        if (events.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        try {
+            errorEventService.saveEvents(events);
+            return events.size();
+        } catch (DataIntegrityViolationException e) {
+            // Usually a duplicate client event id; keep the rest of the batch. The failed
+            // saveAll already cleared the ids, so these persist the same objects afresh.
+            return events.size() - errorEventService.saveEach(events).size();
+        } finally {
+            loadShedder.recordDbWrite((System.nanoTime() - start) / events.size());
+        }
+    }
+    
+    /** True if accepted events are written after the response (spool or queue). */
+    public boolean isDeferred() {
+        return spool != null || queue != null;
+    }
+    
+    /** Spool payload: the request plus what ingest decided about it. */
+    record SpooledEvent(double sampleWeight, IngestRequest request) {}
+}
@@ -0,0 +1,394 @@
+package com.errortracker.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Local write-ahead log for ingest. Events are appended to fixed-size memory-mapped
+ * segment files and acknowledged once a background flusher has forced them to disk,
+ * so concurrent appends share one fsync. IngestSpoolReplayer moves them to Postgres.
+ *
+ * Record layout: [int length][int crc32c][int projectId][length bytes of JSON].
+ * A zero length marks the unwritten tail of a segment.
+ */
+@Component
+@ConditionalOnProperty(name = "app.ingest.mode", havingValue = "spool")
+public class IngestSpool {
+    private static final int HEADER_SIZE = 12;
+    private static final String SEGMENT_SUFFIX = ".log";
+    
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushIntervalMs;
+    private final Thread flusher;
+    
+    // Guarded by this
+    private long segmentId;
+    private MappedByteBuffer segment;
+    private long written;
+    private volatile boolean closed;
+    
+    // Guarded by durableLock
+    private final Object durableLock = new Object();
+    private volatile long durable;
+    
+    private volatile long replayed;
+    
+    // Read-only mappings for the replayer, dropped when their segment is released
+    private final Map<Long, ByteBuffer> readMappings = new ConcurrentHashMap<>();
+    
+    public IngestSpool(@Value("${app.ingest.spool.dir:./data/ingest-spool}") String directory,
+                       @Value("${app.ingest.spool.segment-size-mb:64}") int segmentSizeMb,
+                       @Value("${app.ingest.spool.fsync-interval-ms:0}") long flushIntervalMs,
+                       MeterRegistry meterRegistry) {
+        this.directory = Path.of(directory);
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+        this.flushIntervalMs = flushIntervalMs;
+        try {
+            Files.createDirectories(this.directory);
+            recover();
+            replayed = readCheckpoint();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open ingest spool in " + directory, e);
+        }
+        this.flusher = new Thread(this::flushLoop, "ingest-spool-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+        
+        Gauge.builder("ingest.spool.backlog", this, spool -> spool.backlogBytes())
+            .description("Spooled bytes not yet replayed into the database")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+    
+    /** Appends one event and returns once it is on disk. */
+    public void append(int projectId, byte[] payload) {
+        appendAll(projectId, List.of(payload));
+    }
+    
+    /** Appends events in order and returns once all of them are on disk. */
+    public void appendAll(int projectId, List<byte[]> payloads) {
+        for (byte[] payload : payloads) {
+            if (HEADER_SIZE + payload.length > segmentSize) {
+                throw new IllegalArgumentException("Event too large for the ingest spool");
+            }
+        }
+        
+        long position;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Ingest spool is closed");
+            }
+            for (byte[] payload : payloads) {
+                int recordSize = HEADER_SIZE + payload.length;
+                if (segment.position() + recordSize > segmentSize) {
+                    rollSegment();
+                }
+                int start = segment.position();
+                segment.putInt(start + 8, projectId);
+                segment.put(start + HEADER_SIZE, payload);
+                segment.putInt(start + 4, checksum(segment, start, payload.length));
+                // Length goes in last so a torn write never looks like a complete record
+                segment.putInt(start, payload.length);
+                segment.position(start + recordSize);
+            }
+            written = position(segmentId, segment.position());
+            position = written;
+            notifyAll();
+        }
+        awaitDurable(position);
+    }
+    
+    /**
+     * Reads up to maxRecords durable records starting at the given position, in order.
+     * Only records already forced to disk are returned.
+     */
+    public Batch read(long from, int maxRecords) {
+        List<Record> records = new ArrayList<>();
+        long limit = durable;
+        long current = from;
+        try {
+            while (records.size() < maxRecords && current < limit) {
+                long id = segmentOf(current);
+                int offset = offsetOf(current);
+                ByteBuffer buffer = mapForRead(id);
+                while (records.size() < maxRecords && position(id, offset) < limit) {
+                    if (offset + HEADER_SIZE > segmentSize || buffer.getInt(offset) == 0) {
+                        break;
+                    }
+                    int length = buffer.getInt(offset);
+                    byte[] payload = new byte[length];
+                    buffer.get(offset + HEADER_SIZE, payload);
+                    records.add(new Record(buffer.getInt(offset + 8), payload));
+                    offset += HEADER_SIZE + length;
+                }
+                current = position(id, offset);
+                if (records.size() < maxRecords && segmentOf(limit) > id) {
+                    // Segment exhausted and the writer has moved on
+                    current = position(id + 1, 0);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Batch(records, current);
+    }
+    
+    /** Deletes segments that lie entirely before the given replay position. */
+    public void releaseBefore(long position) {
+        long keep = segmentOf(position);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Long id = parseSegmentId(file);
+                if (id != null && id < keep) {
+                    readMappings.remove(id);
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[SPOOL] Could not delete replayed segments: " + e.getMessage());
+        }
+    }
+    
+    public long readCheckpoint() {
+        Path checkpoint = directory.resolve("checkpoint");
+        try {
+            if (Files.exists(checkpoint)) {
+                return Long.parseLong(Files.readString(checkpoint).trim());
+            }
+            return position(oldestSegmentId(), 0);
+        } catch (IOException | NumberFormatException e) {
+            throw new IllegalStateException("Could not read ingest spool checkpoint", e);
+        }
+    }
+    
+    public void writeCheckpoint(long position) {
+        Path checkpoint = directory.resolve("checkpoint");
+        Path tmp = directory.resolve("checkpoint.tmp");
+        try {
+            Files.writeString(tmp, Long.toString(position), StandardCharsets.US_ASCII,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+            Files.move(tmp, checkpoint, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write ingest spool checkpoint", e);
+        }
+        replayed = position;
+    }
+    
+    public long backlogBytes() {
+        long from = replayed;
+        long to = durable;
+        return (segmentOf(to) - segmentOf(from)) * segmentSize + offsetOf(to) - offsetOf(from);
+    }
+    
+    @PreDestroy
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            segment.force();
+        }
+    }
+    
+    private void flushLoop() {
+        while (true) {
+            MappedByteBuffer toForce;
+            long target;
+            synchronized (this) {
+                while (!closed && written == durable) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed && written == durable) {
+                    return;
+                }
+            }
+            if (flushIntervalMs > 0) {
+                // Optional extra wait so more appends join this fsync; appends arriving
+                // while a force is running already batch into the next one
+                try {
+                    Thread.sleep(flushIntervalMs);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            synchronized (this) {
+                toForce = segment;
+                target = written;
+            }
+            toForce.force();
+            synchronized (durableLock) {
+                durable = target;
+                durableLock.notifyAll();
+            }
+        }
+    }
+    
+    // The record is already in the spool and will be replayed, so an interrupt can't undo the
+    // append: keep waiting for the fsync and restore the flag afterwards
+    private void awaitDurable(long position) {
+        boolean interrupted = false;
+        synchronized (durableLock) {
+            while (durable < position) {
+                try {
+                    durableLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // Caller holds this
+    private void rollSegment() {
+        segment.force();
+        try {
+            segmentId++;
+            segment = mapForWrite(segmentId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create ingest spool segment", e);
+        }
+    }
+    
+    private void recover() throws IOException {
+        Long last = null;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Long id = parseSegmentId(file);
+                if (id != null && (last == null || id > last)) {
+                    last = id;
+                }
+            }
+        }
+        segmentId = last != null ? last : 1;
+        segment = mapForWrite(segmentId);
+        
+        // Find the end of the last intact record; anything after a bad CRC is a torn write
+        int offset = 0;
+        while (offset + HEADER_SIZE <= segmentSize) {
+            int length = segment.getInt(offset);
+            if (length <= 0 || offset + HEADER_SIZE + length > segmentSize) {
+                break;
+            }
+            if (checksum(segment, offset, length) != segment.getInt(offset + 4)) {
+                break;
+            }
+            offset += HEADER_SIZE + length;
+        }
+        // Zero everything after the recovered end: intact records behind the torn one belong to
+        // appends that were never acknowledged, and new records must not line up with them
+        byte[] zeros = new byte[64 * 1024];
+        for (int i = offset; i < segmentSize; i += zeros.length) {
+            segment.put(i, zeros, 0, Math.min(zeros.length, segmentSize - i));
+        }
+        segment.force();
+        segment.position(offset);
+        written = position(segmentId, offset);
+        durable = written;
+    }
+    
+    // CRC over the project id and payload of the record at offset
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + 8, 4 + length));
+        return (int) crc.getValue();
+    }
+    
+    private MappedByteBuffer mapForWrite(long id) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(id),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+    
+    private ByteBuffer mapForRead(long id) throws IOException {
+        ByteBuffer mapped = readMappings.get(id);
+        if (mapped == null) {
+            try (FileChannel channel = FileChannel.open(segmentPath(id), StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, segmentSize);
+            }
+            readMappings.put(id, mapped);
+        }
+        return mapped;
+    }
+    
+    private long oldestSegmentId() throws IOException {
+        Long oldest = null;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Long id = parseSegmentId(file);
+                if (id != null && (oldest == null || id < oldest)) {
+                    oldest = id;
+                }
+            }
+        }
+        return oldest != null ? oldest : segmentId;
+    }
+    
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%016d%s", id, SEGMENT_SUFFIX));
+    }
+    
+    private static Long parseSegmentId(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(SEGMENT_SUFFIX)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    // Positions pack (segment id, offset) into one ordered long
+    private static long position(long segmentId, int offset) {
+        return (segmentId << 32) | offset;
+    }
+    
+    private static long segmentOf(long position) {
+        return position >>> 32;
+    }
+    
+    private static int offsetOf(long position) {
+        return (int) position;
+    }
+    
+    public record Record(int projectId, byte[] payload) {}
+    
+    public record Batch(List<Record> records, long next) {}
+}
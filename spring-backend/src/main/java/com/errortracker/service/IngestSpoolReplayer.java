@@ -0,0 +1,79 @@
+package com.errortracker.service;
+
+import com.errortracker.entity.ErrorEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves spooled events into Postgres and checkpoints the spool position after each
+ * committed batch. Delivery is at-least-once: a crash between commit and checkpoint
+ * replays that batch.
+ */
+@Component
+@ConditionalOnProperty(name = "app.ingest.mode", havingValue = "spool")
+public class IngestSpoolReplayer {
+    private final IngestSpool spool;
+    private final ErrorEventService errorEventService;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${app.ingest.spool.replay-batch-size:500}")
+    private int batchSize;
+    
+    private long position;
+    
+    public IngestSpoolReplayer(IngestSpool spool, ErrorEventService errorEventService, ObjectMapper objectMapper) {
+        this.spool = spool;
+        this.errorEventService = errorEventService;
+        this.objectMapper = objectMapper;
+        this.position = spool.readCheckpoint();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.ingest.spool.replay-interval-ms:500}")
+    public void replay() {
+        IngestSpool.Batch batch;
+        do {
+            batch = spool.read(position, batchSize);
+            if (batch.next() == position) {
+                return;
+            }
+            try {
+                persist(batch.records());
+            } catch (RuntimeException e) {
+                // Database unavailable; keep the checkpoint and retry on the next tick
+                System.err.println("[SPOOL] Replay paused: " + e.getMessage());
+                return;
+            }
+            boolean segmentFinished = (batch.next() >>> 32) != (position >>> 32);
+            spool.writeCheckpoint(batch.next());
+            position = batch.next();
+            if (segmentFinished) {
+                spool.releaseBefore(position);
+            }
+        } while (batch.records().size() >= batchSize);
+    }
+    
+    private void persist(List<IngestSpool.Record> records) {
+        List<ErrorEvent> events = new ArrayList<>(records.size());
+        for (IngestSpool.Record record : records) {
+            try {
+                IngestService.SpooledEvent spooled = objectMapper.readValue(record.payload(), IngestService.SpooledEvent.class);
+                ErrorEvent event = errorEventService.buildEvent(record.projectId(), spooled.request());
+                event.setSampleWeight(spooled.sampleWeight());
+                events.add(event);
+            } catch (IOException e) {
+                System.err.println("[SPOOL] Skipping unreadable record: " + e.getMessage());
+            }
+        }
+        if (!events.isEmpty() && !errorEventService.saveBatch(events).isEmpty()) {
+            // Part of the batch is in; replaying it from the checkpoint is the at-least-once case
+            throw new IllegalStateException("Database failed part-way through a batch");
+        }
+    }
+}
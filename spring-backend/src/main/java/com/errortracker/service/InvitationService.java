@@ -1,14 +1,26 @@
 package com.errortracker.service;
 
+import com.errortracker.dto.BulkInviteResponse;
+import com.errortracker.dto.InvitationResponse;
 import com.errortracker.entity.Invitation;
 import com.errortracker.entity.User;
 import com.errortracker.repository.InvitationRepository;
 import com.errortracker.repository.UserRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 @Service
 public class InvitationService {
@@ -16,6 +28,8 @@ public class InvitationService {
     private final UserRepository userRepository;
     private final EmailService emailService;
     private static final SecureRandom secureRandom = new SecureRandom();
+    private static final HexFormat HEX = HexFormat.of();
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
     
     public InvitationService(InvitationRepository invitationRepository, UserRepository userRepository, EmailService emailService) {
         this.invitationRepository = invitationRepository;
@@ -51,6 +65,67 @@ public class InvitationService {
         return savedInvitation;
     }
     
+    @Transactional
+    public BulkInviteResponse createInvitations(Collection<String> rawEmails, Integer invitedBy) {
+        BulkInviteResponse response = new BulkInviteResponse();
+        
+        // Trim, validate and drop case-insensitive duplicates, keeping the first spelling
+        Map<String, String> emails = new LinkedHashMap<>();
+        for (String raw : rawEmails) {
+            String email = raw == null ? "" : raw.trim();
+            if (!EMAIL_PATTERN.matcher(email).matches()) {
+                response.getInvalid().add(raw);
+                continue;
+            }
+            emails.putIfAbsent(email.toLowerCase(), email);
+        }
+        if (emails.isEmpty()) {
+            return response;
+        }
+        
+        // One query each for existing users and pending invitations instead of one per email,
+        // both matched on the lowercased address like the keys above
+        Set<String> existingUsers = new HashSet<>();
+        for (String email : userRepository.findExistingEmails(emails.keySet())) {
+            existingUsers.add(email.toLowerCase());
+        }
+        Map<String, Invitation> pending = new HashMap<>();
+        for (Invitation invitation : invitationRepository.findByLowerEmailInAndStatus(emails.keySet(), "PENDING")) {
+            pending.put(invitation.getEmail().toLowerCase(), invitation);
+        }
+        
+        List<Invitation> toCreate = new ArrayList<>();
+        List<Invitation> toResend = new ArrayList<>();
+        for (Map.Entry<String, String> entry : emails.entrySet()) {
+            if (existingUsers.contains(entry.getKey())) {
+                response.getExistingUsers().add(entry.getValue());
+            } else if (pending.containsKey(entry.getKey())) {
+                toResend.add(pending.get(entry.getKey()));
+            } else {
+                Invitation invitation = new Invitation();
+                invitation.setEmail(entry.getValue());
+                invitation.setToken(generateToken());
+                invitation.setInvitedBy(invitedBy);
+                invitation.setStatus("PENDING");
+                toCreate.add(invitation);
+            }
+        }
+        
+        // Sequence ids let Hibernate send these as JDBC batches
+        List<Invitation> created = invitationRepository.saveAll(toCreate);
+        
+        String inviterUsername = userRepository.findById(invitedBy)
+            .map(User::getUsername)
+            .orElse("A team member");
+        List<Invitation> toNotify = new ArrayList<>(created);
+        toNotify.addAll(toResend);
+        emailService.sendInvitationEmails(toNotify, inviterUsername);
+        
+        created.forEach(invitation -> response.getCreated().add(InvitationResponse.fromInvitation(invitation)));
+        toResend.forEach(invitation -> response.getResent().add(InvitationResponse.fromInvitation(invitation)));
+        return response;
+    }
+    
     public Optional<Invitation> findByToken(String token) {
         return invitationRepository.findByToken(token);
     }
@@ -75,10 +150,6 @@ public class InvitationService {
     private String generateToken() {
         byte[] bytes = new byte[32];
         secureRandom.nextBytes(bytes);
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
-        }
-        return sb.toString();
+        return HEX.formatHex(bytes);
     }
 }
@@ -0,0 +1,186 @@
+package com.errortracker.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Immutable segment files holding tiered event payloads. A file is written once to a
+ * temporary name, forced to disk and renamed into place; after that it is only read,
+ * one record per positional read, at the offset stored on the event row.
+ *
+ * Layout: [int magic][int version], then records [int length][int crc32c][int eventId][length bytes],
+ * then an index of [int eventId][long offset][int length] per record and a trailer
+ * [long indexOffset][int count][int magic], so a file can be checked or re-indexed on its own.
+ */
+@Component
+public class PayloadSegmentStore {
+    private static final int MAGIC = 0x45505347; // "EPSG"
+    private static final int VERSION = 1;
+    private static final int RECORD_HEADER_SIZE = 12;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    
+    private final Path directory;
+    private final Map<Integer, FileChannel> channels = new ConcurrentHashMap<>();
+    
+    public PayloadSegmentStore(@Value("${app.tiering.dir:./data/payload-segments}") String directory) {
+        this.directory = Path.of(directory);
+        try {
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open payload segment directory " + directory, e);
+        }
+    }
+    
+    /** Writes a complete segment and returns each record's offset, in input order. */
+    public long[] write(int segmentId, List<Entry> entries) {
+        Path target = path(segmentId);
+        Path tmp = directory.resolve(target.getFileName() + ".tmp");
+        long[] offsets = new long[entries.size()];
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            CRC32C crc = new CRC32C();
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                offsets[i] = out.size();
+                crc.reset();
+                crc.update(entry.payload());
+                out.writeInt(entry.payload().length);
+                out.writeInt((int) crc.getValue());
+                out.writeInt(entry.eventId());
+                out.write(entry.payload());
+            }
+            long indexOffset = out.size();
+            for (int i = 0; i < entries.size(); i++) {
+                out.writeInt(entries.get(i).eventId());
+                out.writeLong(offsets[i]);
+                out.writeInt(entries.get(i).payload().length);
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(entries.size());
+            out.writeInt(MAGIC);
+            out.flush();
+            file.getFD().sync();
+        } catch (IOException e) {
+            deleteQuietly(tmp);
+            throw new UncheckedIOException("Could not write payload segment " + segmentId, e);
+        }
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            deleteQuietly(tmp);
+            throw new UncheckedIOException("Could not publish payload segment " + segmentId, e);
+        }
+        return offsets;
+    }
+    
+    /** Reads one record, checking that it belongs to the event and is intact. */
+    public byte[] read(int segmentId, long offset, int length, int eventId) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+        try {
+            FileChannel channel = channel(segmentId);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IllegalStateException("Payload segment " + segmentId + " ends before offset " + offset);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read payload segment " + segmentId, e);
+        }
+        buffer.flip();
+        int storedLength = buffer.getInt();
+        int storedCrc = buffer.getInt();
+        int storedEventId = buffer.getInt();
+        if (storedLength != length || storedEventId != eventId) {
+            throw new IllegalStateException("Payload segment " + segmentId + " has no record for event " + eventId + " at " + offset);
+        }
+        byte[] payload = new byte[length];
+        buffer.get(payload);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        if ((int) crc.getValue() != storedCrc) {
+            throw new IllegalStateException("Corrupt payload for event " + eventId + " in segment " + segmentId);
+        }
+        return payload;
+    }
+    
+    public long size(int segmentId) {
+        try {
+            return Files.size(path(segmentId));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not stat payload segment " + segmentId, e);
+        }
+    }
+    
+    /** Only called once no row references the segment any more. */
+    public void delete(int segmentId) {
+        FileChannel channel = channels.remove(segmentId);
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            Files.deleteIfExists(path(segmentId));
+            Files.deleteIfExists(directory.resolve(path(segmentId).getFileName() + ".tmp"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete payload segment " + segmentId, e);
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        for (FileChannel channel : channels.values()) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Shutting down
+            }
+        }
+        channels.clear();
+    }
+    
+    private FileChannel channel(int segmentId) throws IOException {
+        FileChannel channel = channels.get(segmentId);
+        if (channel == null) {
+            FileChannel opened = FileChannel.open(path(segmentId), StandardOpenOption.READ);
+            channel = channels.putIfAbsent(segmentId, opened);
+            if (channel == null) {
+                channel = opened;
+            } else {
+                opened.close();
+            }
+        }
+        return channel;
+    }
+    
+    private Path path(int segmentId) {
+        return directory.resolve(String.format("%010d%s", segmentId, SEGMENT_SUFFIX));
+    }
+    
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Best effort; an abandoned .tmp is removed with its segment
+        }
+    }
+    
+    public record Entry(int eventId, byte[] payload) {}
+}
@@ -0,0 +1,232 @@
+package com.errortracker.service;
+
+import com.errortracker.config.SchedulingConfig;
+import com.errortracker.entity.ErrorEvent;
+import com.errortracker.entity.EventBreadcrumbs;
+import com.errortracker.entity.PayloadSegment;
+import com.errortracker.repository.EventBreadcrumbsRepository;
+import com.errortracker.repository.PayloadSegmentRepository;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.luben.zstd.Zstd;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves the heavy part of old events (stack trace, breadcrumbs, device/platform extras) out
+ * of Postgres into PayloadSegmentStore files. The row keeps the summary plus the first line
+ * of the trace for search, and points at its record by segment id and offset. Stack traces
+ * and breadcrumbs are copied still compressed, so the dictionary gains carry over; rows are
+ * read as plain columns, never as entities, so nothing is decompressed on the way.
+ *
+ * Each segment is durable on disk before the transaction that points rows at it commits, so
+ * a crash leaves at worst an unreferenced file, removed by a later run.
+ */
+@Service
+public class PayloadTieringService {
+    private static final String MOVE_SQL = "UPDATE error_events SET payload_segment_id = ?, payload_offset = ?, payload_length = ?, " +
+        "stack_trace = ?, stack_trace_zstd = NULL, stack_trace_dictionary_id = NULL, device_info = NULL, platform_info = NULL, " +
+        "breadcrumbs = NULL WHERE id = ? AND payload_segment_id IS NULL";
+    // Oldest first; jsonb comes back as text
+    private static final String UNTIERED_SQL = "SELECT id, stack_trace, stack_trace_zstd, stack_trace_dictionary_id, " +
+        "CAST(device_info AS TEXT), CAST(platform_info AS TEXT), CAST(breadcrumbs AS TEXT) FROM error_events " +
+        "WHERE payload_segment_id IS NULL AND created_at < ? AND id > ? ORDER BY id LIMIT ?";
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+    
+    private final EventBreadcrumbsRepository breadcrumbsRepository;
+    private final PayloadSegmentRepository segmentRepository;
+    private final PayloadSegmentStore segmentStore;
+    private final StackTraceCodec stackTraceCodec;
+    private final BreadcrumbCodec breadcrumbCodec;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int ageDays;
+    private final int segmentEvents;
+    private final Counter eventsMoved;
+    
+    private final ObjectMapper smile = new ObjectMapper(new SmileFactory())
+        .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    
+    public PayloadTieringService(EventBreadcrumbsRepository breadcrumbsRepository,
+                                 PayloadSegmentRepository segmentRepository, PayloadSegmentStore segmentStore,
+                                 StackTraceCodec stackTraceCodec, BreadcrumbCodec breadcrumbCodec,
+                                 JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                 ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                 @Value("${app.tiering.enabled:false}") boolean enabled,
+                                 @Value("${app.tiering.age-days:30}") int ageDays,
+                                 @Value("${app.tiering.segment-events:10000}") int segmentEvents) {
+        this.breadcrumbsRepository = breadcrumbsRepository;
+        this.segmentRepository = segmentRepository;
+        this.segmentStore = segmentStore;
+        this.stackTraceCodec = stackTraceCodec;
+        this.breadcrumbCodec = breadcrumbCodec;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.ageDays = ageDays;
+        this.segmentEvents = segmentEvents;
+        this.eventsMoved = Counter.builder("tiering.events")
+            .description("Events whose payload was moved to a segment file")
+            .register(meterRegistry);
+    }
+    
+    @Scheduled(cron = "${app.tiering.cron:0 30 4 * * *}", scheduler = SchedulingConfig.BATCH_SCHEDULER)
+    public void tier() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minusDays(ageDays);
+        try {
+            int afterId = 0;
+            List<UntieredRow> batch;
+            do {
+                batch = findUntieredBefore(before, afterId);
+                if (!batch.isEmpty()) {
+                    writeSegment(batch);
+                    afterId = batch.get(batch.size() - 1).id();
+                }
+            } while (batch.size() >= segmentEvents);
+            dropUnreferencedSegments();
+        } catch (UncheckedIOException | DataAccessException e) {
+            System.err.println("[TIERING] Run stopped: " + e.getMessage());
+        }
+    }
+    
+    /** Reads the event's payload back from its segment; breadcrumbs are only decoded when asked for. */
+    public TieredPayload read(ErrorEvent event, boolean includeBreadcrumbs) {
+        byte[] record = segmentStore.read(event.getPayloadSegmentId(), event.getPayloadOffset(), event.getPayloadLength(), event.getId());
+        StoredPayload stored;
+        try {
+            stored = smile.readValue(record, StoredPayload.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt tiered payload for event " + event.getId(), e);
+        }
+        String stackTrace = stored.stackTrace() != null
+            ? stackTraceCodec.decompress(stored.stackTrace(), stored.stackTraceDictionaryId())
+            : null;
+        Object breadcrumbs = null;
+        if (includeBreadcrumbs && stored.breadcrumbs() != null) {
+            EventBreadcrumbs row = new EventBreadcrumbs();
+            row.setEventId(event.getId());
+            row.setEncoding(stored.breadcrumbsEncoding());
+            row.setPayload(stored.breadcrumbs());
+            breadcrumbs = breadcrumbCodec.decode(row);
+        }
+        return new TieredPayload(stackTrace, breadcrumbs, stored.deviceExtras(), stored.platformExtras());
+    }
+    
+    private List<UntieredRow> findUntieredBefore(LocalDateTime before, int afterId) {
+        return jdbcTemplate.query(UNTIERED_SQL,
+            (rs, rowNum) -> new UntieredRow(rs.getInt(1), rs.getString(2), rs.getBytes(3), (Integer) rs.getObject(4),
+                rs.getString(5), rs.getString(6), rs.getString(7)),
+            before, afterId, segmentEvents);
+    }
+    
+    private void writeSegment(List<UntieredRow> events) {
+        List<Integer> ids = new ArrayList<>(events.size());
+        for (UntieredRow event : events) {
+            ids.add(event.id());
+        }
+        Map<Integer, EventBreadcrumbs> breadcrumbs = new HashMap<>();
+        for (EventBreadcrumbs row : breadcrumbsRepository.findAllById(ids)) {
+            breadcrumbs.put(row.getEventId(), row);
+        }
+        List<PayloadSegmentStore.Entry> entries = new ArrayList<>(events.size());
+        for (UntieredRow event : events) {
+            entries.add(new PayloadSegmentStore.Entry(event.id(), encode(event, breadcrumbs.get(event.id()))));
+        }
+        
+        // The id names the file; the row stays incomplete until the events point at it
+        PayloadSegment segment = segmentRepository.save(new PayloadSegment());
+        long[] offsets = segmentStore.write(segment.getId(), entries);
+        
+        List<Object[]> moves = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            UntieredRow event = events.get(i);
+            // A compressed row's stack_trace is already its head
+            String stackTrace = event.storedStackTrace();
+            moves.add(new Object[] {
+                segment.getId(), offsets[i], entries.get(i).payload().length,
+                stackTrace != null ? StackTraceCodec.head(stackTrace) : null, event.id()
+            });
+        }
+        int moved = transactionTemplate.execute(status -> {
+            int count = 0;
+            for (int updated : jdbcTemplate.batchUpdate(MOVE_SQL, moves)) {
+                count += Math.max(updated, 0);
+            }
+            breadcrumbsRepository.deleteAllByIdInBatch(ids);
+            segment.setEventCount(count);
+            segment.setSizeBytes(segmentStore.size(segment.getId()));
+            segmentRepository.save(segment);
+            return count;
+        });
+        eventsMoved.increment(moved);
+        System.out.println("[TIERING] Segment " + segment.getId() + ": " + moved + " events, " + segment.getSizeBytes() + " bytes");
+    }
+    
+    private byte[] encode(UntieredRow event, EventBreadcrumbs breadcrumbs) {
+        byte[] stackTrace = event.stackTraceZstd();
+        Integer dictionaryId = event.stackTraceDictionaryId();
+        if (stackTrace == null && event.storedStackTrace() != null) {
+            stackTrace = Zstd.compress(event.storedStackTrace().getBytes(StandardCharsets.UTF_8), StackTraceCodec.ZSTD_LEVEL);
+            dictionaryId = null;
+        }
+        try {
+            if (breadcrumbs == null && event.legacyBreadcrumbs() != null) {
+                breadcrumbs = breadcrumbCodec.encode(event.id(), objectMapper.readValue(event.legacyBreadcrumbs(), Object.class));
+            }
+            StoredPayload payload = new StoredPayload(stackTrace, dictionaryId,
+                breadcrumbs != null ? breadcrumbs.getEncoding() : null, breadcrumbs != null ? breadcrumbs.getPayload() : null,
+                readMap(event.deviceInfo()), readMap(event.platformInfo()));
+            return smile.writeValueAsBytes(payload);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode payload of event " + event.id(), e);
+        }
+    }
+    
+    private Map<String, Object> readMap(String json) throws IOException {
+        return json != null ? objectMapper.readValue(json, MAP_TYPE) : null;
+    }
+    
+    private void dropUnreferencedSegments() {
+        // Segments a crashed run left incomplete are only dropped once no run can still be writing them
+        for (Integer segmentId : segmentRepository.findDroppableIds(LocalDateTime.now().minusDays(1))) {
+            segmentStore.delete(segmentId);
+            segmentRepository.deleteById(segmentId);
+            System.out.println("[TIERING] Dropped segment " + segmentId + " with no remaining events");
+        }
+    }
+    
+    public record TieredPayload(String stackTrace, Object breadcrumbs,
+                                Map<String, Object> deviceExtras, Map<String, Object> platformExtras) {}
+    
+    // The columns tiering moves, as stored: stack_trace is only the head when stack_trace_zstd is set
+    private record UntieredRow(Integer id, String storedStackTrace, byte[] stackTraceZstd, Integer stackTraceDictionaryId,
+                               String deviceInfo, String platformInfo, String legacyBreadcrumbs) {}
+    
+    // Record format inside a segment; both blobs keep the encoding they had in Postgres
+    private record StoredPayload(byte[] stackTrace, Integer stackTraceDictionaryId,
+                                 Short breadcrumbsEncoding, byte[] breadcrumbs,
+                                 Map<String, Object> deviceExtras, Map<String, Object> platformExtras) {}
+}
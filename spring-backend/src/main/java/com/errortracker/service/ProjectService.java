@@ -1,13 +1,20 @@
 package com.errortracker.service;
 
+import com.errortracker.dto.ProjectSummary;
+import com.errortracker.entity.EventDailyAggregate;
 import com.errortracker.entity.Project;
 import com.errortracker.entity.ProjectUser;
 import com.errortracker.repository.ProjectRepository;
 import com.errortracker.repository.ErrorEventRepository;
+import com.errortracker.repository.EventBreadcrumbsRepository;
+import com.errortracker.repository.EventDailyAggregateRepository;
+import com.errortracker.repository.EventDimensionRepository;
 import com.errortracker.repository.ProjectUserRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.security.SecureRandom;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -20,20 +27,31 @@ public class ProjectService {
     private final ProjectRepository projectRepository;
     private final ErrorEventRepository errorEventRepository;
     private final ProjectUserRepository projectUserRepository;
+    private final ApiKeyCache apiKeyCache;
+    private final IngestRateLimiter rateLimiter;
+    private final EventBreadcrumbsRepository breadcrumbsRepository;
+    private final EventDailyAggregateRepository aggregateRepository;
+    private final EventDimensionRepository dimensionRepository;
     private static final SecureRandom secureRandom = new SecureRandom();
     
-    public ProjectService(ProjectRepository projectRepository, ErrorEventRepository errorEventRepository, ProjectUserRepository projectUserRepository) {
+    public ProjectService(ProjectRepository projectRepository, ErrorEventRepository errorEventRepository, ProjectUserRepository projectUserRepository, ApiKeyCache apiKeyCache, IngestRateLimiter rateLimiter, EventBreadcrumbsRepository breadcrumbsRepository, EventDailyAggregateRepository aggregateRepository, EventDimensionRepository dimensionRepository) {
         this.projectRepository = projectRepository;
         this.errorEventRepository = errorEventRepository;
         this.projectUserRepository = projectUserRepository;
+        this.apiKeyCache = apiKeyCache;
+        this.rateLimiter = rateLimiter;
+        this.breadcrumbsRepository = breadcrumbsRepository;
+        this.aggregateRepository = aggregateRepository;
+        this.dimensionRepository = dimensionRepository;
     }
     
+    @Transactional(readOnly = true)
     public List<Project> getAllProjects() {
         List<Project> projects = projectRepository.findAll();
         LocalDateTime since = LocalDateTime.now().minusDays(365);
         
         for (Project project : projects) {
-            long errorCount = errorEventRepository.countByProjectIdAndCreatedAtAfter(project.getId(), since);
+            long errorCount = countErrors(project.getId(), since);
             long userCount = errorEventRepository.countDistinctUsersByProjectIdAndCreatedAtAfter(project.getId(), since);
             long memberCount = projectUserRepository.countByProjectId(project.getId());
             
@@ -45,6 +63,7 @@ public class ProjectService {
         return projects;
     }
     
+    @Transactional(readOnly = true)
     public List<Project> getProjectsByUserId(Integer userId) {
         // Get projects owned by the user
         List<Project> ownedProjects = projectRepository.findByUserId(userId);
@@ -70,7 +89,7 @@ public class ProjectService {
         LocalDateTime since = LocalDateTime.now().minusDays(365);
         
         for (Project project : allProjects) {
-            long errorCount = errorEventRepository.countByProjectIdAndCreatedAtAfter(project.getId(), since);
+            long errorCount = countErrors(project.getId(), since);
             long userCount = errorEventRepository.countDistinctUsersByProjectIdAndCreatedAtAfter(project.getId(), since);
             long memberCount = projectUserRepository.countByProjectId(project.getId());
             
@@ -82,19 +101,17 @@ public class ProjectService {
         return allProjects;
     }
     
+    @Transactional(readOnly = true)
     public Optional<Project> getProject(Integer id) {
         return projectRepository.findById(id).map(project -> {
             // Use a wide window to ensure test data is captured
             LocalDateTime since = LocalDateTime.now().minusDays(365);
             
             // Explicitly fetch counts
-            long errorCount = errorEventRepository.countByProjectIdAndCreatedAtAfter(project.getId(), since);
+            long errorCount = countErrors(project.getId(), since);
             long userCount = errorEventRepository.countDistinctUsersByProjectIdAndCreatedAtAfter(project.getId(), since);
             long memberCount = projectUserRepository.countByProjectId(project.getId());
             
-            // Log for debugging
-            System.out.println("Fetching project " + id + ": errors=" + errorCount + ", users=" + userCount + ", members=" + memberCount);
-            
             project.setErrorCount24h(errorCount);
             project.setUserCount24h(userCount);
             project.setMemberCount(memberCount + 1); // +1 for owner
@@ -103,8 +120,20 @@ public class ProjectService {
         });
     }
     
+    // Daily per-fingerprint totals of the days EventRetentionJob has downsampled
+    @Transactional(readOnly = true)
+    public List<EventDailyAggregate> getEventHistory(Integer projectId, LocalDate since) {
+        return aggregateRepository.findByProjectIdAndDayGreaterThanEqualOrderByDayAscEventCountDesc(projectId, since);
+    }
+    
+    // Name/owner lookup for callers that only need to know the project exists
+    @Transactional(readOnly = true)
+    public Optional<ProjectSummary> getProjectSummary(Integer id) {
+        return projectRepository.findSummaryById(id);
+    }
+    
     public Optional<Project> getProjectByApiKey(String apiKey) {
-        return projectRepository.findByApiKey(apiKey);
+        return apiKeyCache.get(apiKey, projectRepository::findByApiKey);
     }
     
     public Project createProject(String name, String platform, Integer userId) {
@@ -117,8 +146,35 @@ public class ProjectService {
         return projectRepository.save(project);
     }
     
+    public Project updateQuota(Integer id, Integer rateLimitPerSecond, Integer rateLimitBurst, Double overQuotaSampleRate, Integer maxPayloadBytes) {
+        Project project = projectRepository.findById(id)
+            .orElseThrow(() -> new IllegalArgumentException("Project not found"));
+        project.setRateLimitPerSecond(rateLimitPerSecond);
+        project.setRateLimitBurst(rateLimitBurst);
+        project.setOverQuotaSampleRate(overQuotaSampleRate);
+        project.setMaxPayloadBytes(maxPayloadBytes);
+        Project saved = projectRepository.save(project);
+        apiKeyCache.invalidateProject(id);
+        rateLimiter.reset(id);
+        return saved;
+    }
+    
+    // One transaction: a failed project delete must not leave its events without breadcrumbs
+    @Transactional
     public void deleteProject(Integer id) {
+        // Not mapped as associations, so the events' cascade doesn't reach them
+        breadcrumbsRepository.deleteByProjectId(id);
+        aggregateRepository.deleteByProjectId(id);
+        dimensionRepository.deleteByProjectId(id);
         projectRepository.deleteById(id);
+        apiKeyCache.invalidateProject(id);
+        rateLimiter.reset(id);
+    }
+    
+    // Raw events plus the days EventRetentionJob has already collapsed into aggregates
+    private long countErrors(Integer projectId, LocalDateTime since) {
+        return Math.round(errorEventRepository.sumSampleWeightByProjectIdAndCreatedAtAfter(projectId, since)
+            + aggregateRepository.sumEventCountByProjectIdAndDayFrom(projectId, since.toLocalDate()));
     }
     
     private String generateApiKey() {
@@ -1,9 +1,9 @@
 package com.errortracker.service;
 
+import com.errortracker.dto.ProjectMemberView;
+import com.errortracker.dto.UserProjectView;
 import com.errortracker.entity.ProjectUser;
-import com.errortracker.entity.User;
 import com.errortracker.repository.ProjectUserRepository;
-import com.errortracker.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,11 +16,9 @@ import java.util.stream.Collectors;
 @Service
 public class ProjectUserService {
     private final ProjectUserRepository projectUserRepository;
-    private final UserRepository userRepository;
     
-    public ProjectUserService(ProjectUserRepository projectUserRepository, UserRepository userRepository) {
+    public ProjectUserService(ProjectUserRepository projectUserRepository) {
         this.projectUserRepository = projectUserRepository;
-        this.userRepository = userRepository;
     }
     
     public ProjectUser assignUserToProject(Integer projectId, Integer userId, String role) {
@@ -57,25 +55,24 @@ public class ProjectUserService {
     }
     
     public List<Map<String, Object>> getProjectUsersWithDetails(Integer projectId) {
-        List<ProjectUser> projectUsers = projectUserRepository.findByProjectId(projectId);
+        List<ProjectMemberView> members = projectUserRepository.findMembersByProjectId(projectId);
         
-        return projectUsers.stream().map(pu -> {
+        return members.stream().map(member -> {
             Map<String, Object> result = new HashMap<>();
-            result.put("id", pu.getId());
-            result.put("userId", pu.getUserId());
-            result.put("projectId", pu.getProjectId());
-            result.put("role", pu.getRole());
+            result.put("id", member.getId());
+            result.put("userId", member.getUserId());
+            result.put("projectId", member.getProjectId());
+            result.put("role", member.getRole());
             
-            Optional<User> user = userRepository.findById(pu.getUserId());
-            if (user.isPresent()) {
-                User u = user.get();
+            // username is non-null on users, so null here means the joined user is gone
+            if (member.getUsername() != null) {
                 Map<String, Object> userMap = new HashMap<>();
-                userMap.put("id", u.getId());
-                userMap.put("username", u.getUsername());
-                userMap.put("email", u.getEmail());
-                userMap.put("firstName", u.getFirstName());
-                userMap.put("lastName", u.getLastName());
-                userMap.put("profileImageUrl", u.getProfileImageUrl());
+                userMap.put("id", member.getUserId());
+                userMap.put("username", member.getUsername());
+                userMap.put("email", member.getEmail());
+                userMap.put("firstName", member.getFirstName());
+                userMap.put("lastName", member.getLastName());
+                userMap.put("profileImageUrl", member.getProfileImageUrl());
                 result.put("user", userMap);
             }
             
@@ -83,6 +80,14 @@ public class ProjectUserService {
         }).collect(Collectors.toList());
     }
     
+    public List<ProjectMemberView> getProjectMembers(Integer projectId) {
+        return projectUserRepository.findMembersByProjectId(projectId);
+    }
+    
+    public List<UserProjectView> getUserProjectViews(Integer userId) {
+        return projectUserRepository.findProjectViewsByUserId(userId);
+    }
+    
     @Transactional
     public void removeProjectUser(Integer projectUserId, Integer projectId) {
         Optional<ProjectUser> projectUser = projectUserRepository.findById(projectUserId);
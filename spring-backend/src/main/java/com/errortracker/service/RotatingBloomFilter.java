@@ -0,0 +1,79 @@
+package com.errortracker.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Time-windowed Bloom filter: two generations of lock-free bit arrays. Lookups check
+ * both, inserts go to the current one, and rotate() drops the older generation, so a
+ * key is remembered for between one and two rotation intervals.
+ */
+public class RotatingBloomFilter {
+    private final int bits;
+    private final int hashes;
+    private volatile AtomicLongArray current;
+    private volatile AtomicLongArray previous;
+    
+    public RotatingBloomFilter(int expectedPerGeneration, double falsePositiveRate) {
+        double m = -expectedPerGeneration * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.bits = (int) Math.max(64, Math.min(Integer.MAX_VALUE - 63, Math.ceil(m)));
+        this.hashes = Math.max(1, (int) Math.round(m / expectedPerGeneration * Math.log(2)));
+        this.current = new AtomicLongArray((bits + 63) / 64);
+        this.previous = new AtomicLongArray((bits + 63) / 64);
+    }
+    
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        return contains(current, hash) || contains(previous, hash);
+    }
+    
+    public void put(String key) {
+        long hash = hash(key);
+        AtomicLongArray words = current;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bits);
+            long mask = 1L << bit;
+            long word;
+            do {
+                word = words.get(bit >>> 6);
+                if ((word & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(bit >>> 6, word, word | mask));
+        }
+    }
+    
+    public void rotate() {
+        previous = current;
+        current = new AtomicLongArray((bits + 63) / 64);
+    }
+    
+    private boolean contains(AtomicLongArray words, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bits);
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // 64-bit FNV-1a with a final avalanche; the halves feed double hashing
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,159 @@
+package com.errortracker.service;
+
+import com.errortracker.entity.ErrorEvent;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compresses stack traces with zstd using the newest dictionary for the event's project
+ * (or its platform). Dictionaries are loaded by id on first use, through JDBC rather than
+ * JPA because decoding runs inside entity load callbacks.
+ */
+@Component
+public class StackTraceCodec {
+    static final int ZSTD_LEVEL = 3;
+    private static final int MAX_HEAD_CHARS = 512;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int minBytes;
+    private final Map<Integer, ZstdDictDecompress> decompressors = new ConcurrentHashMap<>();
+    private final Map<Integer, ZstdDictCompress> compressors = new ConcurrentHashMap<>();
+    // projectId -> id of the dictionary new events are compressed with
+    private volatile Map<Integer, Integer> activeByProject = Map.of();
+    
+    public StackTraceCodec(JdbcTemplate jdbcTemplate,
+                           @Value("${app.stack-traces.compression.enabled:true}") boolean enabled,
+                           @Value("${app.stack-traces.compression.min-bytes:256}") int minBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.minBytes = minBytes;
+    }
+    
+    /** Before insert: moves the trace into the compressed column, keeping its first line as text. */
+    void encode(ErrorEvent event) {
+        String trace = event.getStackTrace();
+        // Already encoded (e.g. a merged copy of a retried event)
+        if (trace == null || event.getStoredStackTrace() != null || event.getStackTraceCompressed() != null) {
+            return;
+        }
+        byte[] raw = trace.getBytes(StandardCharsets.UTF_8);
+        if (!enabled || raw.length < minBytes) {
+            event.setStoredStackTrace(trace);
+            return;
+        }
+        Integer dictionaryId = activeByProject.get(event.getProjectId());
+        ZstdDictCompress dictionary = dictionaryId != null ? compressors.get(dictionaryId) : null;
+        byte[] compressed = null;
+        if (dictionary != null) {
+            try {
+                compressed = Zstd.compress(raw, dictionary);
+            } catch (IllegalStateException e) {
+                // Superseded and closed by refresh() since it was looked up
+                dictionary = null;
+            }
+        }
+        event.setStackTraceCompressed(dictionary != null ? compressed : Zstd.compress(raw, ZSTD_LEVEL));
+        event.setStackTraceDictionaryId(dictionary != null ? dictionaryId : null);
+        event.setStoredStackTrace(head(trace));
+    }
+    
+    /** After load: restores the full trace. */
+    void decode(ErrorEvent event) {
+        if (event.getStackTraceCompressed() != null) {
+            event.setStackTrace(decompress(event.getStackTraceCompressed(), event.getStackTraceDictionaryId()));
+        }
+    }
+    
+    public String decompress(byte[] compressed, Integer dictionaryId) {
+        int size = (int) Zstd.getFrameContentSize(compressed);
+        byte[] raw = dictionaryId != null
+            ? Zstd.decompress(compressed, decompressor(dictionaryId), size)
+            : Zstd.decompress(compressed, size);
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+    
+    /** Most recent stack traces of a project, decoded, for dictionary training. */
+    public List<byte[]> recentStackTraces(Integer projectId, int limit) {
+        return jdbcTemplate.query(
+            "SELECT stack_trace, stack_trace_zstd, stack_trace_dictionary_id FROM error_events " +
+            "WHERE project_id = ? AND stack_trace IS NOT NULL ORDER BY id DESC LIMIT ?",
+            (rs, rowNum) -> {
+                byte[] compressed = rs.getBytes(2);
+                String trace = compressed != null ? decompress(compressed, (Integer) rs.getObject(3)) : rs.getString(1);
+                return trace.getBytes(StandardCharsets.UTF_8);
+            },
+            projectId, limit);
+    }
+    
+    /** Picks up dictionaries trained here or on other nodes. */
+    @Scheduled(fixedDelayString = "${app.stack-traces.dictionary.refresh-interval-ms:60000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        Map<Integer, Integer> active = new HashMap<>();
+        try {
+            // Newest project dictionary, else newest dictionary for the project's platform
+            jdbcTemplate.query(
+                "SELECT DISTINCT ON (p.id) p.id, d.id FROM projects p JOIN compression_dictionaries d " +
+                "ON d.project_id = p.id OR (d.project_id IS NULL AND d.platform = p.platform) " +
+                "ORDER BY p.id, d.project_id IS NULL, d.version DESC",
+                rs -> {
+                    active.put(rs.getInt(1), rs.getInt(2));
+                });
+            for (Integer dictionaryId : active.values()) {
+                compressors.computeIfAbsent(dictionaryId, id -> new ZstdDictCompress(load(id), ZSTD_LEVEL));
+            }
+        } catch (DataAccessException e) {
+            System.err.println("[COMPRESSION] Could not refresh stack trace dictionaries: " + e.getMostSpecificCause().getMessage());
+            return;
+        }
+        activeByProject = active;
+        // Superseded dictionaries only decode older events now; their compressors hold native memory
+        compressors.entrySet().removeIf(entry -> !active.containsValue(entry.getKey()) && close(entry.getValue()));
+    }
+    
+    // False while an encode still holds it; the next refresh tries again
+    private static boolean close(ZstdDictCompress compressor) {
+        try {
+            compressor.close();
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+    
+    private ZstdDictDecompress decompressor(Integer dictionaryId) {
+        ZstdDictDecompress decompressor = decompressors.get(dictionaryId);
+        if (decompressor == null) {
+            decompressor = new ZstdDictDecompress(load(dictionaryId));
+            decompressors.put(dictionaryId, decompressor);
+        }
+        return decompressor;
+    }
+    
+    private byte[] load(Integer dictionaryId) {
+        return jdbcTemplate.queryForObject("SELECT dictionary FROM compression_dictionaries WHERE id = ?", byte[].class, dictionaryId);
+    }
+    
+    static String head(String trace) {
+        int end = trace.indexOf('\n');
+        if (end < 0) {
+            end = trace.length();
+        }
+        return trace.substring(0, Math.min(end, MAX_HEAD_CHARS));
+    }
+}
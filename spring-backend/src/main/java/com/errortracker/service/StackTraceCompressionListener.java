@@ -0,0 +1,24 @@
+package com.errortracker.service;
+
+import com.errortracker.entity.ErrorEvent;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+
+/** Makes stack trace compression invisible to the rest of the code; created by Spring through Hibernate's bean container. */
+public class StackTraceCompressionListener {
+    private final StackTraceCodec codec;
+    
+    public StackTraceCompressionListener(StackTraceCodec codec) {
+        this.codec = codec;
+    }
+    
+    @PrePersist
+    void compress(ErrorEvent event) {
+        codec.encode(event);
+    }
+    
+    @PostLoad
+    void decompress(ErrorEvent event) {
+        codec.decode(event);
+    }
+}
@@ -0,0 +1,143 @@
+package com.errortracker.service;
+
+import com.errortracker.config.SchedulingConfig;
+import com.errortracker.entity.CompressionDictionary;
+import com.errortracker.entity.Project;
+import com.errortracker.repository.CompressionDictionaryRepository;
+import com.errortracker.repository.ProjectRepository;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+import com.github.luben.zstd.ZstdException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Periodically trains zstd dictionaries from recent stack traces: one per project with
+ * enough events, one per platform pooled from the smaller projects. A new version is only
+ * stored when it compresses held-out traces noticeably better than the current one, so
+ * steady projects don't accumulate identical dictionaries.
+ */
+@Component
+public class StackTraceDictionaryTrainer {
+    private final ProjectRepository projectRepository;
+    private final CompressionDictionaryRepository dictionaryRepository;
+    private final StackTraceCodec codec;
+    private final boolean enabled;
+    private final int dictionaryBytes;
+    private final int sampleCount;
+    private final int minSamples;
+    private final double minImprovement;
+    
+    public StackTraceDictionaryTrainer(ProjectRepository projectRepository, CompressionDictionaryRepository dictionaryRepository,
+                                       StackTraceCodec codec,
+                                       @Value("${app.stack-traces.compression.enabled:true}") boolean enabled,
+                                       @Value("${app.stack-traces.dictionary.size-bytes:65536}") int dictionaryBytes,
+                                       @Value("${app.stack-traces.dictionary.samples:1000}") int sampleCount,
+                                       @Value("${app.stack-traces.dictionary.min-samples:200}") int minSamples,
+                                       @Value("${app.stack-traces.dictionary.min-improvement:0.05}") double minImprovement) {
+        this.projectRepository = projectRepository;
+        this.dictionaryRepository = dictionaryRepository;
+        this.codec = codec;
+        this.enabled = enabled;
+        this.dictionaryBytes = dictionaryBytes;
+        this.sampleCount = sampleCount;
+        this.minSamples = minSamples;
+        this.minImprovement = minImprovement;
+    }
+    
+    @Scheduled(cron = "${app.stack-traces.dictionary.retrain-cron:0 30 3 * * *}", scheduler = SchedulingConfig.BATCH_SCHEDULER)
+    public void retrain() {
+        if (!enabled) {
+            return;
+        }
+        Map<String, List<byte[]>> platformSamples = new HashMap<>();
+        for (Project project : projectRepository.findAll()) {
+            List<byte[]> samples = codec.recentStackTraces(project.getId(), sampleCount);
+            if (samples.size() >= minSamples) {
+                train(project.getId(), project.getPlatform(), samples);
+            } else {
+                List<byte[]> pool = platformSamples.computeIfAbsent(project.getPlatform(), p -> new ArrayList<>());
+                if (pool.size() < sampleCount) {
+                    pool.addAll(samples);
+                }
+            }
+        }
+        platformSamples.forEach((platform, samples) -> {
+            if (samples.size() >= minSamples) {
+                train(null, platform, samples);
+            }
+        });
+        codec.refresh();
+    }
+    
+    private void train(Integer projectId, String platform, List<byte[]> samples) {
+        // Every tenth trace is held out to judge the dictionary on data it wasn't trained on
+        List<byte[]> training = new ArrayList<>();
+        List<byte[]> heldOut = new ArrayList<>();
+        long trainingBytes = 0;
+        for (int i = 0; i < samples.size(); i++) {
+            if (i % 10 == 0) {
+                heldOut.add(samples.get(i));
+            } else {
+                training.add(samples.get(i));
+                trainingBytes += samples.get(i).length;
+            }
+        }
+        
+        byte[] dictionary;
+        try {
+            ZstdDictTrainer trainer = new ZstdDictTrainer((int) Math.min(trainingBytes, Integer.MAX_VALUE), dictionaryBytes);
+            for (byte[] sample : training) {
+                trainer.addSample(sample);
+            }
+            dictionary = trainer.trainSamples();
+        } catch (ZstdException e) {
+            // Too little or too uniform data
+            System.err.println("[COMPRESSION] Dictionary training failed for " + scope(projectId, platform) + ": " + e.getMessage());
+            return;
+        }
+        
+        Optional<CompressionDictionary> current = projectId != null
+            ? dictionaryRepository.findTopByProjectIdOrderByVersionDesc(projectId)
+            : dictionaryRepository.findTopByProjectIdIsNullAndPlatformOrderByVersionDesc(platform);
+        long raw = heldOut.stream().mapToLong(sample -> sample.length).sum();
+        long candidate = compressedSize(heldOut, dictionary);
+        long baseline = current.map(d -> compressedSize(heldOut, d.getDictionary())).orElseGet(() -> compressedSize(heldOut, null));
+        if (candidate > baseline * (1 - minImprovement)) {
+            System.out.println("[COMPRESSION] Keeping current dictionary for " + scope(projectId, platform) + " (" + baseline + " vs " + candidate + " bytes held out)");
+            return;
+        }
+        
+        CompressionDictionary entity = new CompressionDictionary();
+        entity.setProjectId(projectId);
+        entity.setPlatform(platform);
+        entity.setVersion(current.map(d -> d.getVersion() + 1).orElse(1));
+        entity.setDictionary(dictionary);
+        entity.setSampleCount(training.size());
+        entity.setCompressionRatio(raw > 0 ? (double) candidate / raw : null);
+        dictionaryRepository.save(entity);
+        System.out.println("[COMPRESSION] Trained dictionary v" + entity.getVersion() + " for " + scope(projectId, platform)
+            + ": held-out traces " + raw + " -> " + candidate + " bytes");
+    }
+    
+    private static long compressedSize(List<byte[]> samples, byte[] dictionary) {
+        if (dictionary == null) {
+            return samples.stream().mapToLong(sample -> Zstd.compress(sample, StackTraceCodec.ZSTD_LEVEL).length).sum();
+        }
+        try (ZstdDictCompress compressor = new ZstdDictCompress(dictionary, StackTraceCodec.ZSTD_LEVEL)) {
+            return samples.stream().mapToLong(sample -> Zstd.compress(sample, compressor).length).sum();
+        }
+    }
+    
+    private static String scope(Integer projectId, String platform) {
+        return projectId != null ? "project " + projectId : "platform " + platform;
+    }
+}
@@ -2,6 +2,8 @@ package com.errortracker.service;
 
 import com.errortracker.entity.User;
 import com.errortracker.repository.UserRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -77,6 +79,23 @@ public class UserService {
         return userRepository.findAll();
     }
     
+    public Slice<User> searchUsers(String query, Pageable pageable) {
+        if (query == null || query.isBlank()) {
+            return userRepository.findAllBy(pageable);
+        }
+        String prefix = query.trim().toLowerCase()
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_") + "%";
+        return userRepository.searchByPrefix(prefix, pageable);
+    }
+    
+    public long estimateUserCount() {
+        long estimate = userRepository.estimateCount();
+        // reltuples stays at 0/-1 until the table is first analyzed
+        return estimate > 0 ? estimate : userRepository.count();
+    }
+    
     public boolean checkPassword(User user, String rawPassword) {
         return passwordEncoder.matches(rawPassword, user.getPassword());
     }
@@ -0,0 +1,18 @@
+-- Runs after Hibernate's ddl-auto update (spring.jpa.defer-datasource-initialization).
+-- Only for objects JPA annotations cannot express; every statement must be idempotent.
+
+-- Prefix search on the admin user directory
+CREATE INDEX IF NOT EXISTS idx_users_username_prefix ON users (lower(username) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_users_email_prefix ON users (lower(email) text_pattern_ops);
+
+-- Case-insensitive duplicate check of bulk invitations
+CREATE INDEX IF NOT EXISTS idx_invitations_lower_email ON invitations (lower(email));
+
+-- Sequence-backed ids (allocationSize 50). Tables created under IDENTITY already
+-- hold rows, so move each sequence past the current max id before it is used.
+SELECT setval('invitations_seq', GREATEST((SELECT last_value FROM invitations_seq), (SELECT COALESCE(MAX(id), 0) + 1 FROM invitations)));
+SELECT setval('email_outbox_seq', GREATEST((SELECT last_value FROM email_outbox_seq), (SELECT COALESCE(MAX(id), 0) + 1 FROM email_outbox)));
+SELECT setval('error_events_seq', GREATEST((SELECT last_value FROM error_events_seq), (SELECT COALESCE(MAX(id), 0) + 1 FROM error_events)));
+-- error_events was SERIAL; point the column default at the new sequence so hand-written
+-- inserts draw from the same blocks (with pooled-lo every nextval reserves a whole block)
+ALTER TABLE error_events ALTER COLUMN id SET DEFAULT nextval('error_events_seq');
@@ -0,0 +1,103 @@
+package com.errortracker.controller;
+
+import com.errortracker.config.ApiKeyFilter;
+import com.errortracker.config.SecurityConfig;
+import com.errortracker.entity.Project;
+import com.errortracker.service.ErrorEventService;
+import com.errortracker.service.EventDimensionService;
+import com.errortracker.service.IngestDeduplicator;
+import com.errortracker.service.IngestLoadShedder;
+import com.errortracker.service.IngestMetrics;
+import com.errortracker.service.IngestRateLimiter;
+import com.errortracker.service.IngestService;
+import com.errortracker.service.ProjectService;
+import com.errortracker.service.ProjectUserService;
+import com.errortracker.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SDKs post batches with only an API key header: no session, no CSRF token. The security
+ * chain has to let them through to ApiKeyFilter and the controller.
+ */
+@WebMvcTest(EventController.class)
+@Import({SecurityConfig.class, ApiKeyFilter.class, SimpleMeterRegistry.class})
+class IngestBatchSecurityTest {
+    private static final String BATCH = "{\"events\": [{\"type\": \"TypeError\", \"message\": \"x is undefined\"}]}";
+    
+    @Autowired
+    private MockMvc mvc;
+    
+    @MockBean private ErrorEventService errorEventService;
+    @MockBean private ProjectService projectService;
+    @MockBean private UserService userService;
+    @MockBean private ProjectUserService projectUserService;
+    @MockBean private IngestMetrics ingestMetrics;
+    @MockBean private IngestService ingestService;
+    @MockBean private IngestRateLimiter rateLimiter;
+    @MockBean private IngestLoadShedder loadShedder;
+    @MockBean private IngestDeduplicator deduplicator;
+    @MockBean private EventDimensionService dimensionService;
+    
+    private final Project project = new Project();
+    
+    @BeforeEach
+    void setUp() {
+        project.setId(7);
+        when(projectService.getProjectByApiKey("live-key")).thenReturn(Optional.of(project));
+        when(projectService.getProjectByApiKey("wrong-key")).thenReturn(Optional.empty());
+        when(rateLimiter.acquire(any())).thenReturn(new IngestRateLimiter.Decision(true, 1.0, 0));
+        when(ingestService.ingestAll(eq(project), anyList(), anyList())).thenReturn(1);
+        when(ingestService.isDeferred()).thenReturn(true);
+    }
+    
+    @Test
+    void batchWithApiKeyHeaderAndNoSessionIsAccepted() throws Exception {
+        mvc.perform(post("/api/ingest/batch")
+                .header("X-Api-Key", "live-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BATCH))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.accepted").value(1));
+        
+        verify(ingestService).ingestAll(eq(project), anyList(), anyList());
+    }
+    
+    @Test
+    void batchWithUnknownKeyIsRejectedByTheKeyCheck() throws Exception {
+        mvc.perform(post("/api/ingest/batch")
+                .header("X-Api-Key", "wrong-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BATCH))
+            .andExpect(status().isUnauthorized())
+            .andExpect(jsonPath("$.message").value("Invalid API Key"));
+        
+        verify(ingestService, never()).ingestAll(any(), anyList(), anyList());
+    }
+    
+    @Test
+    void dashboardApiStillNeedsASession() throws Exception {
+        mvc.perform(get("/api/projects/7/events"))
+            .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,253 @@
+package com.errortracker.service;
+
+import com.errortracker.entity.OutboundEmail;
+import com.errortracker.repository.OutboundEmailRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the dispatcher against a fake SMTP server on a local socket, with an in-memory outbox
+ * and a transaction manager that records whether a transaction is open while mail is sent.
+ */
+class EmailOutboxDispatcherTest {
+    
+    private final List<OutboundEmail> outbox = new ArrayList<>();
+    private final TrackingTransactionManager transactionManager = new TrackingTransactionManager();
+    private FakeSmtpServer smtp;
+    private EmailOutboxDispatcher dispatcher;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        smtp = new FakeSmtpServer(transactionManager.open);
+        
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(smtp.port());
+        
+        OutboundEmailRepository repository = mock(OutboundEmailRepository.class);
+        when(repository.lockDueBatch(any(), anyInt())).thenAnswer(invocation -> {
+            assertThat(transactionManager.open.get()).as("rows are claimed inside a transaction").isTrue();
+            LocalDateTime now = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            List<OutboundEmail> due = new ArrayList<>();
+            for (OutboundEmail email : outbox) {
+                boolean claimable = email.getStatus().equals("PENDING") || email.getStatus().equals("SENDING");
+                if (claimable && !email.getNextAttemptAt().isAfter(now) && due.size() < limit) {
+                    due.add(email);
+                }
+            }
+            return due;
+        });
+        when(repository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        dispatcher = new EmailOutboxDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "mailSender", mailSender);
+        ReflectionTestUtils.setField(dispatcher, "outboundEmailRepository", repository);
+        ReflectionTestUtils.setField(dispatcher, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(dispatcher, "emailEnabled", true);
+        ReflectionTestUtils.setField(dispatcher, "fromEmail", "noreply@techmonitor.app");
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 2);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 8);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoffSeconds", 30L);
+        ReflectionTestUtils.setField(dispatcher, "maxBackoffSeconds", 3600L);
+        ReflectionTestUtils.setField(dispatcher, "leaseSeconds", 600L);
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        smtp.close();
+    }
+    
+    @Test
+    void sendsEveryDueEmailWithoutHoldingATransaction() {
+        OutboundEmail first = email(1, "a@example.com");
+        OutboundEmail second = email(2, "b@example.com");
+        OutboundEmail third = email(3, "c@example.com");
+        
+        dispatcher.dispatch();
+        
+        assertThat(smtp.recipients()).containsExactly("a@example.com", "b@example.com", "c@example.com");
+        assertThat(smtp.sentInsideTransaction()).containsOnly(false);
+        for (OutboundEmail email : List.of(first, second, third)) {
+            assertThat(email.getStatus()).isEqualTo("SENT");
+            assertThat(email.getAttempts()).isEqualTo(1);
+            assertThat(email.getSentAt()).isNotNull();
+        }
+    }
+    
+    @Test
+    void rejectedRecipientIsRescheduledAndTheRestAreSent() {
+        OutboundEmail delivered = email(1, "a@example.com");
+        OutboundEmail rejected = email(2, "bounce@example.com");
+        
+        dispatcher.dispatch();
+        
+        assertThat(smtp.recipients()).containsExactly("a@example.com");
+        assertThat(delivered.getStatus()).isEqualTo("SENT");
+        assertThat(rejected.getStatus()).isEqualTo("PENDING");
+        assertThat(rejected.getAttempts()).isEqualTo(1);
+        assertThat(rejected.getLastError()).isNotBlank();
+        assertThat(rejected.getNextAttemptAt()).isAfter(LocalDateTime.now().plusSeconds(20));
+    }
+    
+    @Test
+    void expiredLeaseIsClaimedAgain() {
+        OutboundEmail abandoned = email(1, "a@example.com");
+        abandoned.setStatus("SENDING");
+        OutboundEmail leased = email(2, "b@example.com");
+        leased.setStatus("SENDING");
+        leased.setNextAttemptAt(LocalDateTime.now().plusMinutes(5));
+        
+        dispatcher.dispatch();
+        
+        assertThat(smtp.recipients()).containsExactly("a@example.com");
+        assertThat(abandoned.getStatus()).isEqualTo("SENT");
+        assertThat(leased.getStatus()).isEqualTo("SENDING");
+    }
+    
+    private OutboundEmail email(int id, String recipient) {
+        OutboundEmail email = new OutboundEmail();
+        email.setId(id);
+        email.setRecipient(recipient);
+        email.setSubject("Logra - Invitation");
+        email.setBody("Hello " + recipient);
+        email.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outbox.add(email);
+        return email;
+    }
+    
+    private static class TrackingTransactionManager extends AbstractPlatformTransactionManager {
+        private final AtomicBoolean open = new AtomicBoolean();
+        
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+        
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            open.set(true);
+        }
+        
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            open.set(false);
+        }
+        
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            open.set(false);
+        }
+    }
+    
+    /** Just enough SMTP for JavaMail: accepts everything except recipients starting with "bounce". */
+    private static class FakeSmtpServer {
+        private final ServerSocket socket = new ServerSocket(0);
+        private final AtomicBoolean transactionOpen;
+        private final List<String> recipients = new CopyOnWriteArrayList<>();
+        private final List<Boolean> sentInsideTransaction = new CopyOnWriteArrayList<>();
+        
+        FakeSmtpServer(AtomicBoolean transactionOpen) throws IOException {
+            this.transactionOpen = transactionOpen;
+            Thread thread = new Thread(this::acceptLoop, "fake-smtp");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        
+        int port() {
+            return socket.getLocalPort();
+        }
+        
+        List<String> recipients() {
+            return recipients;
+        }
+        
+        List<Boolean> sentInsideTransaction() {
+            return sentInsideTransaction;
+        }
+        
+        void close() throws IOException {
+            socket.close();
+        }
+        
+        private void acceptLoop() {
+            while (!socket.isClosed()) {
+                try (Socket client = socket.accept()) {
+                    converse(client);
+                } catch (IOException e) {
+                    // Closed by the test
+                }
+            }
+        }
+        
+        private void converse(Socket client) throws IOException {
+            BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+            PrintWriter out = new PrintWriter(client.getOutputStream(), true, StandardCharsets.US_ASCII);
+            reply(out, "220 fake-smtp ready");
+            String recipient = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase();
+                if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                    reply(out, "250 fake-smtp");
+                } else if (command.startsWith("RCPT TO:")) {
+                    String address = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                    if (address.startsWith("bounce")) {
+                        reply(out, "550 No such user");
+                    } else {
+                        recipient = address;
+                        reply(out, "250 OK");
+                    }
+                } else if (command.startsWith("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    while (!".".equals(in.readLine())) {
+                        // Message content is not inspected
+                    }
+                    recipients.add(recipient);
+                    sentInsideTransaction.add(transactionOpen.get());
+                    reply(out, "250 OK");
+                } else if (command.startsWith("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    // MAIL FROM, RSET, NOOP
+                    if (command.startsWith("RSET")) {
+                        recipient = null;
+                    }
+                    reply(out, "250 OK");
+                }
+            }
+        }
+        
+        private static void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.errortracker.service;
+
+import com.errortracker.entity.ErrorEvent;
+import com.errortracker.entity.EventBreadcrumbs;
+import com.errortracker.repository.ErrorEventRepository;
+import com.errortracker.repository.EventBreadcrumbsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Saves batches through an in-memory database that behaves like Hibernate on the points
+ * that matter here: ids come from a sequence before the insert, a detached entity whose id
+ * has no row is merged as a copy under a new id, and a rollback discards everything written
+ * in the transaction. event_breadcrumbs rows must point at an existing event, like the FK.
+ */
+class ErrorEventServiceTest {
+    
+    private final Map<Integer, ErrorEvent> events = new HashMap<>();
+    private final Map<Integer, EventBreadcrumbs> breadcrumbs = new HashMap<>();
+    private final Map<Integer, ErrorEvent> pendingEvents = new HashMap<>();
+    private final Map<Integer, EventBreadcrumbs> pendingBreadcrumbs = new HashMap<>();
+    private int sequence = 100;
+    private ErrorEventService service;
+    
+    @BeforeEach
+    void setUp() {
+        ErrorEventRepository eventRepository = mock(ErrorEventRepository.class);
+        when(eventRepository.saveAll(any())).thenAnswer(invocation -> {
+            Iterable<ErrorEvent> batch = invocation.getArgument(0);
+            List<ErrorEvent> saved = new ArrayList<>();
+            for (ErrorEvent event : batch) {
+                saved.add(events.containsKey(event.getId()) ? event : persistOrMerge(event));
+            }
+            for (ErrorEvent event : saved) {
+                if (event.getProjectId() == 0) {
+                    throw new DataIntegrityViolationException("violates foreign key constraint on project_id");
+                }
+                pendingEvents.put(event.getId(), event);
+            }
+            return saved;
+        });
+        
+        EventBreadcrumbsRepository breadcrumbsRepository = mock(EventBreadcrumbsRepository.class);
+        when(breadcrumbsRepository.saveAll(any())).thenAnswer(invocation -> {
+            Iterable<EventBreadcrumbs> rows = invocation.getArgument(0);
+            for (EventBreadcrumbs row : rows) {
+                if (!events.containsKey(row.getEventId()) && !pendingEvents.containsKey(row.getEventId())) {
+                    throw new DataIntegrityViolationException("violates foreign key constraint on event_id " + row.getEventId());
+                }
+                pendingBreadcrumbs.put(row.getEventId(), row);
+            }
+            return rows;
+        });
+        when(breadcrumbsRepository.findById(any())).thenAnswer(invocation ->
+            Optional.ofNullable(breadcrumbs.get((Integer) invocation.getArgument(0))));
+        
+        service = new ErrorEventService(eventRepository, mock(EventDimensionService.class), breadcrumbsRepository,
+            new BreadcrumbCodec(), new TransactionTemplate(new InMemoryTransactionManager()), mock(PayloadTieringService.class));
+    }
+    
+    @Test
+    void batchRetriedRowByRowKeepsEachEventsBreadcrumbs() {
+        ErrorEvent first = event(1, "first");
+        ErrorEvent orphan = event(0, "project deleted meanwhile");
+        ErrorEvent second = event(1, "second");
+        
+        List<ErrorEvent> unwritten = service.saveBatch(List.of(first, orphan, second));
+        
+        assertThat(unwritten).isEmpty();
+        assertThat(events.values()).extracting(ErrorEvent::getMessage).containsExactlyInAnyOrder("first", "second");
+        assertThat(breadcrumbs).hasSize(2);
+        for (ErrorEvent stored : events.values()) {
+            assertThat(readBreadcrumbs(stored.getId())).isEqualTo(crumbs(stored.getMessage()));
+        }
+    }
+    
+    @Test
+    void retryWithAStaleIdStoresBreadcrumbsUnderTheMergedRow() {
+        ErrorEvent event = event(1, "retried");
+        // As left behind by a write whose transaction rolled back before the ids were cleared
+        event.setId(42);
+        
+        ErrorEvent saved = service.saveEvents(List.of(event)).get(0);
+        
+        assertThat(saved.getId()).isNotEqualTo(42);
+        assertThat(events).containsOnlyKeys(saved.getId());
+        assertThat(breadcrumbs).containsOnlyKeys(saved.getId());
+        assertThat(readBreadcrumbs(saved.getId())).isEqualTo(crumbs("retried"));
+    }
+    
+    private ErrorEvent persistOrMerge(ErrorEvent event) {
+        if (event.getId() == null) {
+            event.setId(++sequence);
+            return event;
+        }
+        // merge(): the breadcrumbs are @Transient and don't come along
+        ErrorEvent copy = new ErrorEvent();
+        copy.setId(++sequence);
+        copy.setProjectId(event.getProjectId());
+        copy.setMessage(event.getMessage());
+        return copy;
+    }
+    
+    private Object readBreadcrumbs(Integer eventId) {
+        ErrorEvent reloaded = new ErrorEvent();
+        reloaded.setId(eventId);
+        return service.loadBreadcrumbs(reloaded).getBreadcrumbs();
+    }
+    
+    private static ErrorEvent event(int projectId, String message) {
+        ErrorEvent event = new ErrorEvent();
+        event.setProjectId(projectId);
+        event.setMessage(message);
+        event.setBreadcrumbs(crumbs(message));
+        return event;
+    }
+    
+    private static List<Map<String, Object>> crumbs(String message) {
+        return List.of(Map.of("category", "navigation", "message", "before " + message));
+    }
+    
+    private class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+        
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            pendingEvents.clear();
+            pendingBreadcrumbs.clear();
+        }
+        
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            events.putAll(pendingEvents);
+            breadcrumbs.putAll(pendingBreadcrumbs);
+        }
+        
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            pendingEvents.clear();
+            pendingBreadcrumbs.clear();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.errortracker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the spool against a temporary directory with 1 MB segments. A "crash" is closing the
+ * spool and opening a new one on the same files, after editing them where a torn write is needed.
+ */
+class IngestSpoolTest {
+    private static final int HEADER_SIZE = 12;
+    private static final int SEGMENT_BYTES = 1024 * 1024;
+    
+    @TempDir
+    Path directory;
+    
+    private IngestSpool spool;
+    
+    @AfterEach
+    void tearDown() {
+        if (spool != null) {
+            spool.close();
+        }
+    }
+    
+    @Test
+    void tornRecordAndEverythingAfterItAreDroppedOnRecovery() throws IOException {
+        spool = open();
+        spool.append(1, payload("first", 100));
+        spool.append(1, payload("torn", 200));
+        spool.append(1, payload("never acknowledged", 300));
+        spool.close();
+        
+        // Flip a payload byte of the second record: its CRC no longer matches
+        corrupt(segment(1), HEADER_SIZE + 100 + HEADER_SIZE + 10);
+        
+        spool = open();
+        assertThat(texts(spool.read(spool.readCheckpoint(), 100))).containsExactly("first");
+        
+        // Same size as the torn record, so an old intact record would sit right behind it
+        spool.append(1, payload("after recovery", 200));
+        spool.close();
+        spool = open();
+        
+        assertThat(texts(spool.read(spool.readCheckpoint(), 100))).containsExactly("first", "after recovery");
+    }
+    
+    @Test
+    void readsAcrossSegmentRolloverAndReleasesReplayedSegments() throws IOException {
+        spool = open();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            // Ten of these fill a segment
+            String text = "event-" + i;
+            spool.append(i, payload(text, 100 * 1024));
+            expected.add(text);
+        }
+        assertThat(segmentFiles()).hasSize(3);
+        
+        IngestSpool.Batch batch = spool.read(spool.readCheckpoint(), 100);
+        assertThat(texts(batch)).containsExactlyElementsOf(expected);
+        assertThat(batch.records().get(24).projectId()).isEqualTo(24);
+        assertThat(batch.next() >>> 32).isEqualTo(3);
+        
+        spool.writeCheckpoint(batch.next());
+        spool.releaseBefore(batch.next());
+        assertThat(segmentFiles()).containsExactly(segment(3));
+        assertThat(spool.backlogBytes()).isZero();
+    }
+    
+    @Test
+    void replayResumesFromTheCheckpointAfterARestart() {
+        spool = open();
+        spool.appendAll(7, List.of(payload("a", 50), payload("b", 50), payload("c", 50)));
+        
+        IngestSpool.Batch first = spool.read(spool.readCheckpoint(), 2);
+        assertThat(texts(first)).containsExactly("a", "b");
+        spool.writeCheckpoint(first.next());
+        // Read but never checkpointed: replayed again after the restart
+        assertThat(texts(spool.read(first.next(), 10))).containsExactly("c");
+        spool.close();
+        
+        spool = open();
+        assertThat(spool.readCheckpoint()).isEqualTo(first.next());
+        IngestSpool.Batch rest = spool.read(spool.readCheckpoint(), 10);
+        assertThat(texts(rest)).containsExactly("c");
+        assertThat(rest.records().get(0).projectId()).isEqualTo(7);
+        assertThat(spool.read(rest.next(), 10).records()).isEmpty();
+    }
+    
+    @Test
+    void interruptedAppendStillCompletesAndKeepsTheFlag() {
+        spool = open();
+        
+        Thread.currentThread().interrupt();
+        spool.append(1, payload("while interrupted", 50));
+        
+        assertThat(Thread.interrupted()).isTrue();
+        assertThat(texts(spool.read(spool.readCheckpoint(), 10))).containsExactly("while interrupted");
+    }
+    
+    private IngestSpool open() {
+        return new IngestSpool(directory.toString(), SEGMENT_BYTES / (1024 * 1024), 0, new SimpleMeterRegistry());
+    }
+    
+    private Path segment(long id) {
+        return directory.resolve(String.format("%016d.log", id));
+    }
+    
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".log")).sorted().toList();
+        }
+    }
+    
+    private static void corrupt(Path file, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, position);
+            one.put(0, (byte) (one.get(0) ^ 0xFF));
+            one.rewind();
+            channel.write(one, position);
+        }
+    }
+    
+    // The text, padded with spaces to exactly size bytes
+    private static byte[] payload(String text, int size) {
+        byte[] bytes = new byte[size];
+        Arrays.fill(bytes, (byte) ' ');
+        byte[] head = text.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(head, 0, bytes, 0, head.length);
+        return bytes;
+    }
+    
+    private static List<String> texts(IngestSpool.Batch batch) {
+        return batch.records().stream().map(record -> new String(record.payload(), StandardCharsets.UTF_8).trim()).toList();
+    }
+}
@@ -43,9 +43,8 @@ async function reportError(error) {
   try {
     const response = await fetch(LOGRA_URL, {
       method: "POST",
-      headers: { "Content-Type": "application/json" },
+      headers: { "Content-Type": "application/json", "X-Api-Key": LOGRA_API_KEY },
       body: JSON.stringify({
-        apiKey: LOGRA_API_KEY,
         message: error.message || String(error),
         level: "error",
         stackTrace: error.stack || new Error().stack,
@@ -95,7 +94,6 @@ def report_error(error, level="error"):
     """Report an error to Logra"""
     try:
         payload = {
-            "apiKey": LOGRA_API_KEY,
             "message": str(error),
             "level": level,
             "stackTrace": traceback.format_exc(),
@@ -108,7 +106,7 @@ def report_error(error, level="error"):
         response = requests.post(
             LOGRA_URL,
             json=payload,
-            headers={"Content-Type": "application/json"},
+            headers={"Content-Type": "application/json", "X-Api-Key": LOGRA_API_KEY},
             timeout=5
         )
         print(f"Error reported: {response.ok}")
@@ -147,7 +145,6 @@ object Logra {
 
     fun reportError(error: Throwable, level: String = "error") {
         val payload = JSONObject().apply {
-            put("apiKey", API_KEY)
             put("message", error.message ?: "Unknown error")
             put("level", level)
             put("stackTrace", error.stackTraceToString())
@@ -162,6 +159,7 @@ object Logra {
 
         val request = Request.Builder()
             .url(INGEST_URL)
+            .header("X-Api-Key", API_KEY)
             .post(payload.toString().toRequestBody(JSON))
             .build()
 
@@ -198,7 +196,6 @@ class Logra {
     static func reportError(_ error: Error, level: String = "error") {
         let device = UIDevice.current
         let payload: [String: Any] = [
-            "apiKey": apiKey,
             "message": error.localizedDescription,
             "level": level,
             "stackTrace": Thread.callStackSymbols.joined(separator: "\\n"),
@@ -212,6 +209,7 @@ class Logra {
         var request = URLRequest(url: ingestURL)
         request.httpMethod = "POST"
         request.setValue("application/json", forHTTPHeaderField: "Content-Type")
+        request.setValue(apiKey, forHTTPHeaderField: "X-Api-Key")
         request.httpBody = try? JSONSerialization.data(withJSONObject: payload)
         
         URLSession.shared.dataTask(with: request) { _, response, err in
@@ -260,7 +258,6 @@ public class Logra {
         new Thread(() -> {
             try {
                 JsonObject payload = new JsonObject();
-                payload.addProperty("apiKey", API_KEY);
                 payload.addProperty("message", error.getMessage());
                 payload.addProperty("level", level);
                 payload.addProperty("stackTrace", getStackTrace(error));
@@ -276,6 +273,7 @@ public class Logra {
                 HttpURLConnection conn = (HttpURLConnection) url.openConnection();
                 conn.setRequestMethod("POST");
                 conn.setRequestProperty("Content-Type", "application/json");
+                conn.setRequestProperty("X-Api-Key", API_KEY);
                 conn.setDoOutput(true);
 
                 try (OutputStream os = conn.getOutputStream()) {
@@ -313,8 +311,8 @@ try {
 
 curl -X POST "${ingestUrl}" \\
   -H "Content-Type: application/json" \\
+  -H "X-Api-Key: ${project.apiKey}" \\
   -d '{
-    "apiKey": "${project.apiKey}",
     "message": "Test error from shell script",
     "level": "error",
     "stackTrace": "at script.sh:15\\nat main.sh:42",
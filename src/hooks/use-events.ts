@@ -64,7 +64,7 @@ export function useEvent(id: number) {
   return useQuery<ErrorEvent>({
     queryKey: ["/api/events", id],
     queryFn: async () => {
-      const res = await fetch(`/api/events/${id}`, { credentials: "include" });
+      const res = await fetch(`/api/events/${id}?include=breadcrumbs`, { credentials: "include" });
       if (!res.ok) throw new Error("Failed to fetch event details");
       return res.json();
     },